@@ -158,6 +158,9 @@ run_vertex_bench() {
 }
 
 # Run edge benchmarks
+# The edges connect the vertices of the vertex key space (one vertex per edge
+# of a thread, see --graphDegree). edge_insert drops the database, so it first
+# imports these vertices itself; edge_update and edge_replace reuse them.
 run_edge_bench() {
     run_bench $1 "edge_insert" $2 $3
     run_bench $1 "edge_update" $2 $3
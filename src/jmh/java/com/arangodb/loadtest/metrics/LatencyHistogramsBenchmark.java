@@ -0,0 +1,97 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the work of one output interval of the collecting thread: merging the histograms of all recorders and
+ * computing the percentiles of the interval and the totals. Run with the GC profiler (-prof gc) to see the allocation
+ * per operation.
+ *
+ * @author Mark Vollmary
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyHistogramsBenchmark {
+
+	private static final int VALUES_PER_INTERVAL = 1000;
+
+	@Param({ "1", "64" })
+	public int recorders;
+
+	private LatencyRecorder[] latencyRecorders;
+	private LatencyHistograms latencies;
+	private SplittableRandom random;
+
+	@Setup
+	public void setup() {
+		latencyRecorders = new LatencyRecorder[recorders];
+		for (int i = 0; i < recorders; i++) {
+			latencyRecorders[i] = new LatencyRecorder();
+		}
+		latencies = new LatencyHistograms();
+		random = new SplittableRandom(0);
+	}
+
+	/**
+	 * Fills the recorders with latencies between 100us and 100ms, as recorded by the workers during an interval.
+	 */
+	@Setup(Level.Invocation)
+	public void record() {
+		for (final LatencyRecorder recorder : latencyRecorders) {
+			for (int i = 0; i < VALUES_PER_INTERVAL; i++) {
+				recorder.record(random.nextLong(100_000, 100_000_000));
+			}
+		}
+	}
+
+	@Benchmark
+	public Double[] collectInterval() {
+		latencies.reset();
+		for (final LatencyRecorder recorder : latencyRecorders) {
+			latencies.addIntervalOf(recorder);
+		}
+		latencies.completeInterval();
+		LatencyHistograms.latencies(latencies.getTotalServiceTimes());
+		return LatencyHistograms.latencies(latencies.getServiceTimes());
+	}
+
+}
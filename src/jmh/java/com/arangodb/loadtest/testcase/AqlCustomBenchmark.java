@@ -0,0 +1,94 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.BasicParser;
+import org.apache.commons.cli.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.loadtest.cli.CliOptionUtils;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.KeyGen;
+
+/**
+ * Measures the bind parameters built for test case 'aql_custom' per operation, including the keys and documents
+ * prepared for them. No connection is opened. Run with the GC profiler (-prof gc) to see the allocation per
+ * operation.
+ *
+ * @author Mark Vollmary
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AqlCustomBenchmark {
+
+	@Param({ "1", "100" })
+	public int batchSize;
+
+	@Param({ "FOR d IN @@collection FILTER d._key == @key RETURN d",
+			"FOR d IN @docs INSERT d INTO @@collection" })
+	public String query;
+
+	private AqlCustomTestCase testCase;
+
+	@Setup
+	public void setup() throws ParseException {
+		final String[] args = { "--test", "aql_custom", "--batchSize", String.valueOf(batchSize), "--query",
+				query };
+		final CliOptions options = CliOptionUtils
+				.readOptions(new BasicParser().parse(CliOptionUtils.createOptions(), args));
+		testCase = new AqlCustomTestCase(new ArangoDB.Builder(), options, 0, new LatencyRecorder(),
+				new KeyGen(options, 0, 0), new DocumentCreator(options, 0, options.getThreads()));
+	}
+
+	@TearDown
+	public void teardown() throws Exception {
+		testCase.close();
+	}
+
+	@Benchmark
+	public Map<String, Object> bindVars() {
+		testCase._prepare();
+		return testCase.bindVars(query);
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.BasicParser;
+import org.apache.commons.cli.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arangodb.entity.BaseDocument;
+import com.arangodb.entity.BaseEdgeDocument;
+import com.arangodb.loadtest.cli.CliOptionUtils;
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Measures the documents and edges handed to the driver per operation, excluding the key generation. Run with the GC
+ * profiler (-prof gc) to see the allocation per operation.
+ *
+ * @author Mark Vollmary
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentCreatorBenchmark {
+
+	@Param({ "1", "100" })
+	public int batchSize;
+
+	private List<String> keys;
+	private DocumentCreator documentCreator;
+
+	@Setup
+	public void setup() throws ParseException {
+		final String[] args = { "--test", "document_insert", "--batchSize", String.valueOf(batchSize) };
+		final CliOptions options = CliOptionUtils
+				.readOptions(new BasicParser().parse(CliOptionUtils.createOptions(), args));
+		keys = new KeyGen(options, 0, 0).generateKeys(batchSize);
+		documentCreator = new DocumentCreator(options, 0, options.getThreads());
+	}
+
+	@Benchmark
+	public List<BaseDocument> create() {
+		return documentCreator.create(keys);
+	}
+
+	@Benchmark
+	public List<BaseDocument> createDetached() {
+		return documentCreator.createDetached(keys);
+	}
+
+	@Benchmark
+	public List<BaseEdgeDocument> createEdge() {
+		return documentCreator.createEdge(keys);
+	}
+
+}
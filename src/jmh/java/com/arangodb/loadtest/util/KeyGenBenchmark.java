@@ -0,0 +1,86 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Run with the GC profiler (-prof gc) to see the allocation per operation.
+ *
+ * @author Mark Vollmary
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGenBenchmark {
+
+	@Param({ "1", "100" })
+	public int batchSize;
+
+	private KeyGen keyGen;
+
+	@Setup
+	public void setup() {
+		final CliOptions options = new CliOptions();
+		options.setKeyPrefix("baseline");
+		verifyFormat(options);
+		keyGen = new KeyGen(options, 7, 0);
+	}
+
+	/**
+	 * Makes sure the keys are identical to the ones of former versions, so existing datasets remain readable.
+	 */
+	private static void verifyFormat(final CliOptions options) {
+		final KeyGen keyGen = new KeyGen(options, 7, 3);
+		for (int index = 0; index < 100000; index++) {
+			final String expected = String.format("%s-%s-%s-%s", options.getKeyPrefix(), 3, 7, index);
+			final String key = keyGen.generateKeys(1).get(0);
+			if (!expected.equals(key)) {
+				throw new IllegalStateException(String.format("Expected key %s, got %s", expected, key));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<String> generateKeys() {
+		return keyGen.generateKeys(batchSize);
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.cli.KeyDistribution;
+
+/**
+ * Measures the time per key of {@link KeyGen#selectKeys(int)} with the different key distributions, over a key space
+ * of 10 threads with 10 million keys each.
+ *
+ * @author Mark Vollmary
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeySelectionBenchmark {
+
+	@Param({ "sequential", "uniform", "zipfian", "hotspot", "latest" })
+	public String keyDistribution;
+
+	private KeyGen keyGen;
+
+	@Setup
+	public void setup() {
+		final CliOptions options = new CliOptions();
+		options.setKeyPrefix("baseline");
+		options.setKeyDistribution(KeyDistribution.valueOf(keyDistribution.toUpperCase()));
+		options.setKeySpace(10 * 1000 * 1000);
+		options.setThreads(10);
+		options.setZipfianTheta(0.99);
+		options.setHotspotKeyFraction(0.2);
+		options.setHotspotOpFraction(0.8);
+		keyGen = new KeyGen(options, 7, 0);
+	}
+
+	@Benchmark
+	public List<String> selectKeys() {
+		return keyGen.selectKeys(1);
+	}
+
+}
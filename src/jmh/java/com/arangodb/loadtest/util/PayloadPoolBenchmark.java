@@ -0,0 +1,151 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.BasicParser;
+import org.apache.commons.cli.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.entity.BaseDocument;
+import com.arangodb.loadtest.cli.CliOptionUtils;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.util.ArangoSerialization;
+import com.arangodb.util.ArangoSerializer;
+import com.arangodb.velocypack.VPackSlice;
+
+/**
+ * Compares the client CPU time per operation spent on building the request body, with and without option
+ * 'docPayloadPool' and with documents of option 'dataset'. All benchmarks use the serializer of the driver, the same way the driver does when inserting,
+ * updating or replacing documents. Run with the GC profiler (-prof gc) to see the allocation per operation.
+ *
+ * @author Mark Vollmary
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadPoolBenchmark {
+
+	@Param({ "1", "100" })
+	public int batchSize;
+
+	@Param({ "0", "20" })
+	public int docNumLargeSimple;
+
+	@Param({ "0", "3" })
+	public int docNumObjects;
+
+	private ArangoDB arango;
+	private ArangoSerialization serialization;
+	private KeyGen keyGen;
+	private DocumentCreator documentCreator;
+	private Path datasetFile;
+	private DocumentCreator datasetCreator;
+
+	@Setup
+	public void setup() throws ParseException, IOException {
+		final String[] args = { "--test", "document_insert", "--batchSize", String.valueOf(batchSize),
+				"--docNumLargeSimple", String.valueOf(docNumLargeSimple), "--docNumObjects",
+				String.valueOf(docNumObjects), "--docPayloadPool", "true" };
+		final CliOptions options = CliOptionUtils
+				.readOptions(new BasicParser().parse(CliOptionUtils.createOptions(), args));
+		arango = new ArangoDB.Builder().build();
+		serialization = arango.util();
+		keyGen = new KeyGen(options, 0, 0);
+		documentCreator = new DocumentCreator(options, 0, options.getThreads());
+		verifyPayload();
+		datasetFile = Files.createTempFile("dataset", Dataset.FILE_EXTENSION);
+		Dataset.write(datasetFile, options, 10000);
+		options.setDataset(datasetFile.toString());
+		datasetCreator = new DocumentCreator(options, 0, options.getThreads());
+	}
+
+	@TearDown
+	public void teardown() throws IOException {
+		arango.shutdown();
+		Files.delete(datasetFile);
+	}
+
+	/**
+	 * Makes sure the pre-serialized documents have the same content as the serialized {@link BaseDocument}s.
+	 */
+	private void verifyPayload() {
+		final List<String> keys = keyGen.generateKeys(batchSize);
+		final VPackSlice expected = serialization.serialize(documentCreator.create(keys), serializeOptions());
+		final VPackSlice actual = serialization.serialize(documentCreator.createSerialized(keys), serializeOptions());
+		for (int i = 0; i < batchSize; i++) {
+			final Map<?, ?> expectedDocument = serialization.deserialize(expected.get(i), Map.class);
+			final Map<?, ?> actualDocument = serialization.deserialize(actual.get(i), Map.class);
+			if (!expectedDocument.equals(actualDocument)) {
+				throw new IllegalStateException(
+						String.format("Expected document %s, got %s", expectedDocument, actualDocument));
+			}
+		}
+	}
+
+	/**
+	 * The serializer stores the type of the serialized value in the options, so they can't be reused.
+	 */
+	private static ArangoSerializer.Options serializeOptions() {
+		return new ArangoSerializer.Options().serializeNullValues(false);
+	}
+
+	@Benchmark
+	public VPackSlice serializeDocuments() {
+		final List<BaseDocument> documents = documentCreator.create(keyGen.generateKeys(batchSize));
+		return serialization.serialize(batchSize == 1 ? documents.get(0) : documents, serializeOptions());
+	}
+
+	@Benchmark
+	public VPackSlice payloadPool() {
+		final List<VPackSlice> documents = documentCreator.createSerialized(keyGen.generateKeys(batchSize));
+		return serialization.serialize(batchSize == 1 ? documents.get(0) : documents, serializeOptions());
+	}
+
+	@Benchmark
+	public VPackSlice dataset() {
+		final List<VPackSlice> documents = datasetCreator.createSerialized(keyGen.generateKeys(batchSize));
+		return serialization.serialize(batchSize == 1 ? documents.get(0) : documents, serializeOptions());
+	}
+
+}
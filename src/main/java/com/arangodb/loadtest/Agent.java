@@ -0,0 +1,151 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyReport;
+import com.arangodb.loadtest.testcase.TestCase;
+import com.arangodb.loadtest.worker.MixedWorker;
+
+/**
+ * Generates load on behalf of a {@link Coordinator}. The agent receives the command line arguments from the
+ * coordinator, runs the test cases in sync with the other agents and reports the latencies of every output interval.
+ * <p>
+ * The keys of the documents of an agent are prefixed with the index of the agent, so that the agents work on disjoint
+ * documents.
+ *
+ * @author Mark Vollmary
+ *
+ */
+final class Agent implements TestListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Agent.class);
+
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	private Agent(final Socket socket) throws IOException {
+		super();
+		in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	/**
+	 * Serves one coordinator after the other, never returns.
+	 */
+	static void listen(final int port) throws IOException {
+		try (ServerSocket server = new ServerSocket(port)) {
+			LOGGER.info("Agent waiting for coordinator on port {}", server.getLocalPort());
+			while (true) {
+				try (Socket socket = server.accept()) {
+					socket.setTcpNoDelay(true);
+					LOGGER.info("Coordinator {} connected", socket.getRemoteSocketAddress());
+					new Agent(socket).session();
+				} catch (final IOException e) {
+					LOGGER.error("Connection to coordinator failed", e);
+				}
+			}
+		}
+	}
+
+	private void session() throws IOException {
+		if (in.readByte() != AgentProtocol.HELLO || in.readInt() != AgentProtocol.VERSION) {
+			throw new IOException("Unexpected message from coordinator");
+		}
+		final int index = in.readInt();
+		final String[] args = new String[in.readInt()];
+		for (int i = 0; i < args.length; i++) {
+			args[i] = in.readUTF();
+		}
+		final CliOptions options;
+		final List<MixedWorker.Operation> operations;
+		try {
+			options = App.parseOptions(args);
+			operations = App.prepare(options);
+		} catch (final ParseException | IllegalArgumentException e) {
+			sendError(e.getMessage());
+			return;
+		}
+		final String keyPrefix = options.getKeyPrefix();
+		options.setKeyPrefix((keyPrefix != null ? keyPrefix + "-" : "") + "agent" + index);
+		out.writeByte(AgentProtocol.READY);
+		out.flush();
+		final PrintStream print = App.createPrintStream(options);
+		try {
+			App.run(new App(this, null), options, operations, false, print);
+		} catch (final IOException e) {
+			throw e;
+		} catch (final Exception e) {
+			LOGGER.error("Failed", e);
+			sendError(e.toString());
+			return;
+		} finally {
+			App.close(print);
+		}
+		out.writeByte(AgentProtocol.DONE);
+		out.flush();
+		LOGGER.info("All test cases finished");
+	}
+
+	private void sendError(final String message) throws IOException {
+		out.writeByte(AgentProtocol.ERROR);
+		out.writeUTF(String.valueOf(message));
+		out.flush();
+	}
+
+	@Override
+	public void testStarting(final TestCase test, final int run) throws IOException {
+		out.writeByte(AgentProtocol.TEST_READY);
+		out.writeUTF(test.name());
+		out.writeInt(run);
+		out.flush();
+		if (in.readByte() != AgentProtocol.GO) {
+			throw new IOException("Unexpected message from coordinator");
+		}
+	}
+
+	@Override
+	public void interval(final LatencyReport report) throws IOException {
+		AgentProtocol.writeInterval(out, report);
+		out.flush();
+	}
+
+	@Override
+	public void testFinished() throws IOException {
+		out.writeByte(AgentProtocol.TEST_END);
+		out.flush();
+	}
+
+}
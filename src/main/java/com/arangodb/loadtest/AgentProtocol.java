@@ -0,0 +1,164 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+
+import com.arangodb.loadtest.metrics.LatencyHistograms;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.metrics.LatencyReport;
+
+/**
+ * Messages exchanged between {@link Coordinator} and {@link Agent}. Every message starts with its type (one byte).
+ * <ul>
+ * <li>{@link #HELLO} (coordinator): protocol version, index of the agent, command line arguments</li>
+ * <li>{@link #READY} (agent): the options are valid</li>
+ * <li>{@link #TEST_READY} (agent): name of the test case and run, the workers are created</li>
+ * <li>{@link #GO} (coordinator): start the workers, sent when all agents are ready</li>
+ * <li>{@link #INTERVAL} (agent): compressed histograms of an output interval</li>
+ * <li>{@link #TEST_END} (agent): all workers finished</li>
+ * <li>{@link #DONE} (agent): all test cases finished</li>
+ * <li>{@link #ERROR} (agent): error message, the agent stops</li>
+ * </ul>
+ *
+ * @author Mark Vollmary
+ *
+ */
+final class AgentProtocol {
+
+	static final int VERSION = 4;
+
+	static final byte HELLO = 1;
+	static final byte READY = 2;
+	static final byte TEST_READY = 3;
+	static final byte GO = 4;
+	static final byte INTERVAL = 5;
+	static final byte TEST_END = 6;
+	static final byte DONE = 7;
+	static final byte ERROR = 8;
+
+	/**
+	 * Name of the histograms of all operations of a test case other than 'mix'.
+	 */
+	private static final String ALL_OPERATIONS = "";
+
+	private AgentProtocol() {
+		super();
+	}
+
+	/**
+	 * Writes the latencies of the current interval of the given report. For test case 'mix' only the latencies of
+	 * the operations are written, since the latencies of all operations are derived from them.
+	 */
+	static void writeInterval(final DataOutputStream out, final LatencyReport report) throws IOException {
+		final Map<String, LatencyHistograms> operations = report.getOperationLatencies();
+		out.writeByte(INTERVAL);
+		if (operations.isEmpty()) {
+			out.writeInt(1);
+			writeLatencies(out, ALL_OPERATIONS, report.getLatencies());
+		} else {
+			out.writeInt(operations.size());
+			for (final Map.Entry<String, LatencyHistograms> operation : operations.entrySet()) {
+				writeLatencies(out, operation.getKey(), operation.getValue());
+			}
+		}
+		final Histogram schedulingDelays = report.getSchedulingDelays();
+		out.writeBoolean(schedulingDelays != null);
+		if (schedulingDelays != null) {
+			writeHistogram(out, schedulingDelays);
+		}
+		out.writeBoolean(report.isWarmupInterval());
+	}
+
+	/**
+	 * Reads the latencies of an interval written with {@link #writeInterval(DataOutputStream, LatencyReport)} and
+	 * adds them to the current interval of the given report.
+	 */
+	static void readInterval(final DataInputStream in, final LatencyReport report) throws IOException {
+		final int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			final String name = in.readUTF();
+			final LatencyHistograms latencies = ALL_OPERATIONS.equals(name) ? report.getLatencies()
+					: report.getOperationLatencies().get(name);
+			if (latencies == null) {
+				throw new IOException(String.format("Unknown operation \"%s\"", name));
+			}
+			final Histogram serviceTimes = readHistogram(in);
+			final Histogram responseTimes = readHistogram(in);
+			final Histogram failureTimes = readHistogram(in);
+			final Map<String, Long> errorCodes = new HashMap<>();
+			for (int j = in.readInt(); j > 0; j--) {
+				errorCodes.put(in.readUTF(), in.readLong());
+			}
+			latencies.addInterval(serviceTimes, responseTimes, failureTimes, errorCodes, in.readLong());
+		}
+		if (in.readBoolean()) {
+			final Histogram schedulingDelays = readHistogram(in);
+			if (report.getSchedulingDelays() != null) {
+				report.getSchedulingDelays().add(schedulingDelays);
+			}
+		}
+		if (in.readBoolean()) {
+			report.markWarmupInterval();
+		}
+	}
+
+	private static void writeLatencies(final DataOutputStream out, final String name, final LatencyHistograms latencies)
+			throws IOException {
+		out.writeUTF(name);
+		writeHistogram(out, latencies.getServiceTimes());
+		writeHistogram(out, latencies.getResponseTimes());
+		writeHistogram(out, latencies.getFailureTimes());
+		out.writeInt(latencies.getErrorCodes().size());
+		for (final Map.Entry<String, Long> errorCode : latencies.getErrorCodes().entrySet()) {
+			out.writeUTF(errorCode.getKey());
+			out.writeLong(errorCode.getValue());
+		}
+		out.writeLong(latencies.getInFlight());
+	}
+
+	private static void writeHistogram(final DataOutputStream out, final Histogram histogram) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+		final int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+		out.writeInt(length);
+		out.write(buffer.array(), 0, length);
+	}
+
+	private static Histogram readHistogram(final DataInputStream in) throws IOException {
+		final byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		try {
+			return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes),
+				LatencyRecorder.HIGHEST_TRACKABLE_VALUE);
+		} catch (final DataFormatException e) {
+			throw new IOException(e);
+		}
+	}
+
+}
@@ -22,12 +22,15 @@ package com.arangodb.loadtest;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.net.InetAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,12 +52,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBAsync;
+import com.arangodb.Protocol;
 import com.arangodb.loadtest.cli.CliOptionUtils;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.HistogramLog;
+import com.arangodb.loadtest.metrics.HistogramLogMerger;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.metrics.LatencyReport;
+import com.arangodb.loadtest.metrics.LoadSteps;
+import com.arangodb.loadtest.metrics.MetricsServer;
+import com.arangodb.loadtest.metrics.SloSearch;
+import com.arangodb.loadtest.metrics.Warmup;
+import com.arangodb.loadtest.stub.StubServer;
+import com.arangodb.loadtest.testcase.AqlCursorTestCase;
 import com.arangodb.loadtest.testcase.AqlCustomTestCase;
 import com.arangodb.loadtest.testcase.AqlInsertTestCase;
 import com.arangodb.loadtest.testcase.AqlReadTestCase;
 import com.arangodb.loadtest.testcase.AqlReplaceTestCase;
+import com.arangodb.loadtest.testcase.ArangoTestCase;
+import com.arangodb.loadtest.testcase.AsyncDocumentInsertTestCase;
+import com.arangodb.loadtest.testcase.AsyncDocumentReadTestCase;
+import com.arangodb.loadtest.testcase.AsyncDocumentReplaceTestCase;
+import com.arangodb.loadtest.testcase.AsyncDocumentUpdateTestCase;
 import com.arangodb.loadtest.testcase.DocumentImportTestCase;
 import com.arangodb.loadtest.testcase.DocumentInsertTestCase;
 import com.arangodb.loadtest.testcase.DocumentReadTestCase;
@@ -65,15 +85,29 @@ import com.arangodb.loadtest.testcase.EdgeReadTestCase;
 import com.arangodb.loadtest.testcase.EdgeReplaceTestCase;
 import com.arangodb.loadtest.testcase.EdgeUpdateTestCase;
 import com.arangodb.loadtest.testcase.GetVersionTestCase;
+import com.arangodb.loadtest.testcase.IndexTestCase;
+import com.arangodb.loadtest.testcase.SearchLagTestCase;
+import com.arangodb.loadtest.testcase.SearchTestCase;
+import com.arangodb.loadtest.testcase.ShortestPathTestCase;
 import com.arangodb.loadtest.testcase.TestCase;
+import com.arangodb.loadtest.testcase.TraversalTestCase;
 import com.arangodb.loadtest.testcase.VertexInsertTestCase;
 import com.arangodb.loadtest.testcase.VertexReadTestCase;
 import com.arangodb.loadtest.testcase.VertexReplaceTestCase;
 import com.arangodb.loadtest.testcase.VertexUpdateTestCase;
 import com.arangodb.loadtest.util.DatabaseSetupUtils;
+import com.arangodb.loadtest.util.Dataset;
 import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.HostTracking;
+import com.arangodb.loadtest.util.PreloadUtils;
+import com.arangodb.loadtest.util.Vocabulary;
+import com.arangodb.loadtest.worker.AsyncWorker;
+import com.arangodb.loadtest.worker.MixedWorker;
+import com.arangodb.loadtest.worker.SchedulingProbe;
 import com.arangodb.loadtest.worker.ThreadWorker;
-import com.arangodb.loadtest.worker.ThreadWorker.InstanceCreator;
+import com.arangodb.loadtest.worker.Worker;
+import com.arangodb.loadtest.worker.Worker.InstanceCreator;
+import com.arangodb.loadtest.worker.WorkerThreads;
 
 /**
  * 
@@ -84,48 +118,251 @@ public class App {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(App.class);
 	private static final String USAGE_INFO = "java -jar arangodb-load-test.jar";
+	private static final String MERGE_COMMAND = "merge";
+	private static final String AGENT_COMMAND = "agent";
+	private static final String DATASET_COMMAND = "dataset";
+	private static final String OPERATION_PRIMARY = "primary";
+	private static final String OPERATION_INDEX = "index";
+
+	private final TestListener listener;
+	private final MetricsServer metrics;
+
+	public App() {
+		this(null, null);
+	}
+
+	/**
+	 * @param listener
+	 *            notified about the progress of the test cases, may be {@code null}
+	 * @param metrics
+	 *            updated at the end of every output interval, may be {@code null}
+	 */
+	App(final TestListener listener, final MetricsServer metrics) {
+		super();
+		this.listener = listener;
+		this.metrics = metrics;
+	}
 
 	public static void main(final String[] args) throws Exception {
-		final App app = new App();
-		final CommandLineParser parser = new BasicParser();
+		if (args.length > 0 && MERGE_COMMAND.equals(args[0])) {
+			if (args.length == 1) {
+				System.err.println(String.format("usage: %s %s <histogram log>...", USAGE_INFO, MERGE_COMMAND));
+				System.exit(1);
+			}
+			HistogramLogMerger.merge(Arrays.asList(args).subList(1, args.length));
+			return;
+		}
+		if (args.length > 0 && AGENT_COMMAND.equals(args[0])) {
+			if (args.length != 2) {
+				System.err.println(String.format("usage: %s %s <port>", USAGE_INFO, AGENT_COMMAND));
+				System.exit(1);
+			}
+			Agent.listen(Integer.parseInt(args[1]));
+			return;
+		}
+		if (args.length > 0 && DATASET_COMMAND.equals(args[0])) {
+			if (args.length < 3) {
+				System.err.println(String.format("usage: %s %s <file> <documents> [document options]", USAGE_INFO,
+					DATASET_COMMAND));
+				System.exit(1);
+			}
+			final Options datasetOptions = CliOptionUtils.createOptions();
+			// only the document options are used, option 'test' is not needed
+			datasetOptions.getRequiredOptions().clear();
+			final CliOptions options = CliOptionUtils.readOptions(
+				new BasicParser().parse(datasetOptions, Arrays.copyOfRange(args, 3, args.length)));
+			final Path path = Paths.get(args[1]);
+			Dataset.write(path, options, Integer.parseInt(args[2]));
+			System.out.println(String.format("## DATASET %s. %s documents, %s bytes", path, args[2], Files.size(path)));
+			return;
+		}
 		final Options opts = CliOptionUtils.createOptions();
-		CommandLine cmd;
 		CliOptions options;
 		try {
-			cmd = parser.parse(opts, args);
-			options = CliOptionUtils.readOptions(cmd);
+			options = parseOptions(args);
 		} catch (final ParseException e) {
 			System.err.println(e);
 			new HelpFormatter().printHelp(USAGE_INFO, opts);
 			System.exit(1);
 			return;
 		}
-		final ArangoDB.Builder builder = new ArangoDB.Builder().useProtocol(options.getProtocol())
+		if (options.getTest() == null) {
+			new HelpFormatter().printHelp(USAGE_INFO, opts);
+			System.exit(1);
+		}
+		final List<MixedWorker.Operation> operations;
+		try {
+			operations = prepare(options);
+		} catch (final IllegalArgumentException e) {
+			LOGGER.error(e.getMessage());
+			System.exit(1);
+			return;
+		}
+		PrintStream out = null;
+		MetricsServer metrics = null;
+		try {
+			out = createPrintStream(options);
+			if (options.getMetricsPort() > 0) {
+				metrics = new MetricsServer(options);
+				metrics.start();
+				if (options.getVerbose()) {
+					out.println(String.format("## METRICS http://localhost:%s%s", metrics.getPort(),
+						MetricsServer.PATH));
+				}
+			}
+			final String agents = options.getAgents();
+			if (agents != null && !agents.isEmpty()) {
+				new Coordinator(options, args, operations, metrics).run(out);
+			} else {
+				run(new App(null, metrics), options, operations, true, out);
+			}
+		} catch (final Exception e) {
+			LOGGER.error("Failed", e);
+		} finally {
+			if (metrics != null) {
+				metrics.close();
+			}
+			close(out);
+		}
+	}
+
+	static CliOptions parseOptions(final String[] args) throws ParseException {
+		final CommandLineParser parser = new BasicParser();
+		final CommandLine cmd = parser.parse(CliOptionUtils.createOptions(), args);
+		return CliOptionUtils.readOptions(cmd);
+	}
+
+	/**
+	 * Checks the combination of the given options.
+	 *
+	 * @return the operations of test case 'mix', if used
+	 * @throws IllegalArgumentException
+	 *             if the options are invalid
+	 */
+	static List<MixedWorker.Operation> prepare(final CliOptions options) {
+		if (options.getStub() && options.getSsl()) {
+			throw new IllegalArgumentException("Option 'stub' does not support option 'ssl'");
+		}
+		if (options.getVirtualThreads() && !WorkerThreads.isVirtualSupported()) {
+			throw new IllegalArgumentException("Option 'virtualThreads' requires Java 21 or newer");
+		}
+		if (options.getDataset() != null) {
+			if (options.getDocUnique()) {
+				throw new IllegalArgumentException("Option 'dataset' does not support option 'docUnique'");
+			}
+			options.setDocPayloadPool(true);
+			Dataset.open(options.getDataset());
+		}
+		Warmup.create(options);
+		LoadSteps.create(options);
+		if (options.getSloLatency() > 0 && options.getAgents() != null) {
+			throw new IllegalArgumentException("Option 'sloLatency' does not support option 'agents'");
+		}
+		if (options.getTraversalDepth().stream().anyMatch(depth -> depth < 1) || options.getKPaths() < 1) {
+			throw new IllegalArgumentException("Options 'traversalDepth' and 'kPaths' have to be at least 1");
+		}
+		if (options.getGraphDegree() < 1) {
+			throw new IllegalArgumentException("Option 'graphDegree' has to be at least 1");
+		}
+		if (searches(options)) {
+			if (!options.getDocView() || options.getDocNumLargeSimple() < 1) {
+				throw new IllegalArgumentException(
+						"The search test cases require option 'docView' and option 'docNumLargeSimple' of at least 1");
+			}
+			if (options.getSearchTerms() < 1 || options.getSearchLimit() < 1) {
+				throw new IllegalArgumentException("Options 'searchTerms' and 'searchLimit' have to be at least 1");
+			}
+		}
+		if (options.getDocView()) {
+			Vocabulary.get(options.getDocVocabulary());
+		}
+		if (options.getDocUnique() && options.getDocPayloadPool()) {
+			throw new IllegalArgumentException("Option 'docUnique' does not support option 'docPayloadPool'");
+		}
+		if (options.getIndexLimit() < 1) {
+			throw new IllegalArgumentException("Option 'indexLimit' has to be at least 1");
+		}
+		if (options.getTest() != null && options.getTest().contains(TestCase.MIX)) {
+			return createOperations(options);
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return the started stub server, if option 'stub' is set, otherwise {@code null}
+	 */
+	static StubServer createStub(final CliOptions options) throws IOException {
+		if (!options.getStub()) {
+			return null;
+		}
+		final StubServer stub = new StubServer(options);
+		stub.start();
+		return stub;
+	}
+
+	static ArangoDB.Builder createBuilder(final CliOptions options, final StubServer stub) throws Exception {
+		final ArangoDB.Builder builder = (options.getHostLatencies() ? new HostTracking.Builder()
+				: new ArangoDB.Builder()).useProtocol(options.getProtocol())
 				.user(options.getUser()).password(options.getPassword())
 				.loadBalancingStrategy(options.getLoadBalancing()).acquireHostList(options.getAcquireHostList())
 				.maxConnections(options.getConnections()).useSsl(options.getSsl());
-
 		if (options.getSsl()) {
 			builder.sslContext(createSslContext());
 		}
+		if (stub != null) {
+			builder.host(InetAddress.getLoopbackAddress().getHostAddress(),
+				options.getProtocol() == Protocol.VST ? stub.getVstPort() : stub.getHttpPort());
+		} else {
+			endpoints(options).forEach(e -> builder.host(e[0], Integer.valueOf(e[1])));
+		}
+		return builder;
+	}
 
-		Stream.of(options.getEndpoints().split(",")).map(e -> e.split(":")).filter(e -> e.length == 2)
-				.forEach(e -> builder.host(e[0], Integer.valueOf(e[1])));
-		try {
-			final Collection<TestCase> tests = options.getTest();
-			if (tests == null) {
-				new HelpFormatter().printHelp(USAGE_INFO, opts);
-				System.exit(1);
-			}
-			try (PrintStream out = createPrintStream(options)) {
-				run(app, options, builder, tests, out);
-			}
-		} catch (final Exception e) {
-			LOGGER.error("Failed", e);
+	private static ArangoDBAsync.Builder createAsyncBuilder(final CliOptions options, final StubServer stub)
+			throws Exception {
+		final ArangoDBAsync.Builder asyncBuilder = (options.getHostLatencies() ? new HostTracking.AsyncBuilder()
+				: new ArangoDBAsync.Builder()).user(options.getUser())
+				.password(options.getPassword()).loadBalancingStrategy(options.getLoadBalancing())
+				.acquireHostList(options.getAcquireHostList()).maxConnections(options.getConnections())
+				.useSsl(options.getSsl());
+		if (options.getSsl()) {
+			asyncBuilder.sslContext(createSslContext());
+		}
+		if (stub != null) {
+			asyncBuilder.host(InetAddress.getLoopbackAddress().getHostAddress(), stub.getVstPort());
+		} else {
+			endpoints(options).forEach(e -> asyncBuilder.host(e[0], Integer.valueOf(e[1])));
+		}
+		return asyncBuilder;
+	}
+
+	private static Stream<String[]> endpoints(final CliOptions options) {
+		return Stream.of(options.getEndpoints().split(",")).map(e -> e.split(":")).filter(e -> e.length == 2);
+	}
+
+	/**
+	 * Creates the database, collections, graph and indexes used by the given test cases.
+	 */
+	static void setup(
+		final CliOptions options,
+		final ArangoDB.Builder builder,
+		final List<MixedWorker.Operation> operations) {
+		final boolean dropDB = options.getDropDB() != null && options.getDropDB().booleanValue();
+		final Collection<TestCase> setupTests = new ArrayList<>(options.getTest());
+		operations.forEach(operation -> setupTests.add(operation.getTest()));
+		DatabaseSetupUtils.setup(builder, options, dropDB, setupTests);
+	}
+
+	/**
+	 * Closes the given output unless it is {@link System#out}, which is still needed for the log.
+	 */
+	static void close(final PrintStream out) {
+		if (out != null && out != System.out) {
+			out.close();
 		}
 	}
 
-	private static PrintStream createPrintStream(final CliOptions options) throws IOException {
+	static PrintStream createPrintStream(final CliOptions options) throws IOException {
 		final PrintStream out;
 		final String outputFile = options.getOutputFile();
 		if (outputFile == null || outputFile.isEmpty()) {
@@ -139,6 +376,23 @@ public class App {
 		return out;
 	}
 
+	/**
+	 * @return the log for the latency histograms of the given test case and run, or {@code null} if option
+	 *         'histogramLogDir' is not set
+	 */
+	static HistogramLog createHistogramLog(final CliOptions options, final String type, final int run)
+			throws IOException {
+		final String dir = options.getHistogramLogDir();
+		if (dir == null || dir.isEmpty()) {
+			return null;
+		}
+		final Path path = Paths.get(dir);
+		Files.createDirectories(path);
+		return new HistogramLog(path.resolve(type + "-run" + (run + 1) + HistogramLog.FILE_EXTENSION),
+				String.format("test case %s, run %s, %s threads, batch size %s, client %s", type, run + 1,
+					options.getThreads(), options.getBatchSize(), InetAddress.getLocalHost().getHostName()));
+	}
+
 	private static SSLContext createSslContext() throws Exception {
 		final String SSL_TRUSTSTORE = "/example.truststore";
 		final String SSL_TRUSTSTORE_PASSWORD = "12345678";
@@ -156,14 +410,55 @@ public class App {
 		return sc;
 	}
 
+	/**
+	 * Runs all test cases.
+	 *
+	 * @param setup
+	 *            whether to create the database, collections, graph and indexes first
+	 */
+	static void run(
+		final App app,
+		final CliOptions options,
+		final List<MixedWorker.Operation> operations,
+		final boolean setup,
+		final PrintStream out) throws Exception {
+		try (StubServer stub = createStub(options)) {
+			if (stub != null && options.getVerbose()) {
+				out.println(String.format("## STUB SERVER. http port %s, vst port %s, response delay %s us",
+					stub.getHttpPort(), stub.getVstPort(), options.getStubDelay()));
+			}
+			final ArangoDB.Builder builder = createBuilder(options, stub);
+			final ArangoDBAsync.Builder asyncBuilder = createAsyncBuilder(options, stub);
+			if (setup) {
+				setup(options, builder, operations);
+			}
+			run(app, options, builder, asyncBuilder, options.getTest(), operations, out);
+		}
+	}
+
 	private static void run(
 		final App app,
 		final CliOptions options,
 		final ArangoDB.Builder builder,
+		final ArangoDBAsync.Builder asyncBuilder,
 		final Collection<TestCase> tests,
+		final List<MixedWorker.Operation> operations,
 		final PrintStream out) throws InterruptedException, IOException {
-		final boolean dropDB = options.getDropDB() != null && options.getDropDB().booleanValue();
-		DatabaseSetupUtils.setup(builder, options, dropDB, tests);
+		final Collection<TestCase> preloadTests = new ArrayList<>(tests);
+		operations.forEach(operation -> preloadTests.add(operation.getTest()));
+		final Collection<String> preloadCollections = PreloadUtils.collections(options, preloadTests);
+		final LoadSteps steps = LoadSteps.create(options);
+		final int keyThreads = steps != null && !steps.isRates() ? steps.getMaxThreads() : options.getThreads();
+		if (options.getPreload() == 0 && options.getKeySpace() == 0) {
+			final Long keysPerThread = PreloadUtils.keysPerThread(builder, options, preloadCollections, keyThreads);
+			if (keysPerThread != null) {
+				options.setKeySpace(Math.toIntExact(keysPerThread));
+				if (options.getVerbose()) {
+					out.println(String.format("## PRELOADED %s keys per thread in %s", keysPerThread,
+						String.join(",", preloadCollections)));
+				}
+			}
+		}
 		for (final AtomicInteger i = new AtomicInteger(0); i.get() < options.getRuns(); i.incrementAndGet()) {
 			final Integer delay = options.getDelay();
 			if (i.get() > 0 && delay > 0) {
@@ -178,180 +473,478 @@ public class App {
 			if (options.getVerbose()) {
 				out.println("# RUN " + (i.get() + 1));
 			}
+			if (options.getPreload() > 0 && !preloadCollections.isEmpty()) {
+				options.setKeySpace(Math.toIntExact(
+					PreloadUtils.preload(builder, options, preloadCollections, keyThreads, i.get(), out)));
+			} else if (preloadTests.stream().anyMatch(App::connectsEdges)) {
+				PreloadUtils.preloadVertices(builder, options, keyThreads, i.get(), out);
+			}
 			for (final TestCase test : tests) {
-				final InstanceCreator creator;
-				switch (test) {
-				case VERSION:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new GetVersionTestCase(b, o, n, t), null, i.get());
-					break;
-				case DOCUMENT_GET:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new DocumentReadTestCase(b, o, n, t, k), null, i.get());
-					break;
-				case DOCUMENT_INSERT:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new DocumentInsertTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case DOCUMENT_IMPORT:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new DocumentImportTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case DOCUMENT_UPDATE:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new DocumentUpdateTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case DOCUMENT_REPLACE:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new DocumentReplaceTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case AQL_CUSTOM:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new AqlCustomTestCase(b, o, n, t, k, d), new DocumentCreator(options),
-							i.get());
-					break;
-				case AQL_GET:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new AqlReadTestCase(b, o, n, t, k), null, i.get());
-					break;
-				case AQL_INSERT:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new AqlInsertTestCase(b, o, n, t, k, d), new DocumentCreator(options),
-							i.get());
-					break;
-				case AQL_REPLACE:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new AqlReplaceTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case VERTEX_GET:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new VertexReadTestCase(b, o, n, t, k), null, i.get());
-					break;
-				case VERTEX_INSERT:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new VertexInsertTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case VERTEX_UPDATE:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new VertexUpdateTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case VERTEX_REPLACE:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new VertexReplaceTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case EDGE_GET:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new EdgeReadTestCase(b, o, n, t, k), null, i.get());
-					break;
-				case EDGE_INSERT:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new EdgeInsertTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case EDGE_UPDATE:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new EdgeUpdateTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				case EDGE_REPLACE:
-					creator = (num, times) -> new ThreadWorker(builder, options, num, times,
-							(b, o, n, t, k, d) -> new EdgeReplaceTestCase(b, o, n, t, k, d),
-							new DocumentCreator(options), i.get());
-					break;
-				default:
+				if (options.getInflight() > 0) {
+					final InstanceCreator asyncCreator = createAsyncCreator(options, asyncBuilder, test, i.get(),
+						keyThreads);
+					if (asyncCreator != null) {
+						app.run(options, test, asyncCreator, Collections.emptyList(), i.get(), out);
+					} else {
+						LOGGER.error(String.format("Test case \"%s\" is not supported with option 'inflight'",
+							test.toString().toLowerCase()));
+					}
 					continue;
 				}
-				app.run(options, test, creator, out);
+				final InstanceCreator creator;
+				final List<MixedWorker.Operation> testOperations = operations(options, test, operations);
+				if (!testOperations.isEmpty()) {
+					creator = (num, recorders) -> new MixedWorker(builder, options, num, recorders, testOperations,
+							i.get(), keyThreads);
+				} else {
+					final ArangoTestCase.InstanceCreator testCreator = createTestCreator(test);
+					if (testCreator == null) {
+						continue;
+					}
+					creator = (num, recorders) -> new ThreadWorker(builder, options, num, recorders, testCreator,
+							usesDocuments(test) ? new DocumentCreator(options, num, keyThreads) : null, i.get(),
+							keyThreads);
+				}
+				app.run(options, test, creator, operationNames(testOperations), i.get(), out);
+			}
+		}
+	}
+
+	private static ArangoTestCase.InstanceCreator createTestCreator(final TestCase test) {
+		switch (test) {
+		case VERSION:
+			return (b, o, n, r, k, d) -> new GetVersionTestCase(b, o, n, r);
+		case DOCUMENT_GET:
+			return (b, o, n, r, k, d) -> new DocumentReadTestCase(b, o, n, r, k);
+		case DOCUMENT_INSERT:
+			return (b, o, n, r, k, d) -> new DocumentInsertTestCase(b, o, n, r, k, d);
+		case DOCUMENT_IMPORT:
+			return (b, o, n, r, k, d) -> new DocumentImportTestCase(b, o, n, r, k, d);
+		case DOCUMENT_UPDATE:
+			return (b, o, n, r, k, d) -> new DocumentUpdateTestCase(b, o, n, r, k, d);
+		case DOCUMENT_REPLACE:
+			return (b, o, n, r, k, d) -> new DocumentReplaceTestCase(b, o, n, r, k, d);
+		case AQL_CUSTOM:
+			return (b, o, n, r, k, d) -> new AqlCustomTestCase(b, o, n, r, k, d);
+		case AQL_GET:
+			return (b, o, n, r, k, d) -> new AqlReadTestCase(b, o, n, r, k);
+		case AQL_INSERT:
+			return (b, o, n, r, k, d) -> new AqlInsertTestCase(b, o, n, r, k, d);
+		case AQL_REPLACE:
+			return (b, o, n, r, k, d) -> new AqlReplaceTestCase(b, o, n, r, k, d);
+		case AQL_CURSOR:
+			return (b, o, n, r, k, d) -> new AqlCursorTestCase(b, o, n, r, k);
+		case VERTEX_GET:
+			return (b, o, n, r, k, d) -> new VertexReadTestCase(b, o, n, r, k);
+		case VERTEX_INSERT:
+			return (b, o, n, r, k, d) -> new VertexInsertTestCase(b, o, n, r, k, d);
+		case VERTEX_UPDATE:
+			return (b, o, n, r, k, d) -> new VertexUpdateTestCase(b, o, n, r, k, d);
+		case VERTEX_REPLACE:
+			return (b, o, n, r, k, d) -> new VertexReplaceTestCase(b, o, n, r, k, d);
+		case EDGE_GET:
+			return (b, o, n, r, k, d) -> new EdgeReadTestCase(b, o, n, r, k);
+		case EDGE_INSERT:
+			return (b, o, n, r, k, d) -> new EdgeInsertTestCase(b, o, n, r, k, d);
+		case EDGE_UPDATE:
+			return (b, o, n, r, k, d) -> new EdgeUpdateTestCase(b, o, n, r, k, d);
+		case EDGE_REPLACE:
+			return (b, o, n, r, k, d) -> new EdgeReplaceTestCase(b, o, n, r, k, d);
+		case TRAVERSAL_OUTBOUND:
+		case TRAVERSAL_ANY:
+			return (b, o, n, r, k, d) -> new TraversalTestCase(b, o, n, r, k, test,
+					o.getTraversalDepth().iterator().next());
+		case SHORTEST_PATH:
+		case K_SHORTEST_PATHS:
+			return (b, o, n, r, k, d) -> new ShortestPathTestCase(b, o, n, r, k, test);
+		case SEARCH_TOKENS:
+		case SEARCH_PHRASE:
+			return (b, o, n, r, k, d) -> new SearchTestCase(b, o, n, r, test);
+		case SEARCH_LAG:
+			return (b, o, n, r, k, d) -> new SearchLagTestCase(b, o, n, r, k, d);
+		case INDEX_GET:
+		case INDEX_RANGE:
+		case INDEX_IN:
+			return (b, o, n, r, k, d) -> new IndexTestCase(b, o, n, r, k, test, o.getIndexField());
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @return whether the test case needs a {@link DocumentCreator}
+	 */
+	private static boolean usesDocuments(final TestCase test) {
+		switch (test) {
+		case VERSION:
+		case DOCUMENT_GET:
+		case AQL_GET:
+		case AQL_CURSOR:
+		case VERTEX_GET:
+		case EDGE_GET:
+		case TRAVERSAL_OUTBOUND:
+		case TRAVERSAL_ANY:
+		case SHORTEST_PATH:
+		case K_SHORTEST_PATHS:
+		case SEARCH_TOKENS:
+		case SEARCH_PHRASE:
+		case INDEX_GET:
+		case INDEX_RANGE:
+		case INDEX_IN:
+			return false;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * @return whether the test case writes edges, whose vertices have to exist
+	 */
+	private static boolean connectsEdges(final TestCase test) {
+		return test == TestCase.EDGE_INSERT || test == TestCase.EDGE_UPDATE || test == TestCase.EDGE_REPLACE;
+	}
+
+	/**
+	 * @return whether the test case inserts new documents
+	 */
+	private static boolean isInsert(final TestCase test) {
+		switch (test) {
+		case DOCUMENT_INSERT:
+		case DOCUMENT_IMPORT:
+		case AQL_INSERT:
+		case VERTEX_INSERT:
+		case EDGE_INSERT:
+		case SEARCH_LAG:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @param mix
+	 *            the operations of option 'mix'
+	 * @return the operations the workers of the given test case pick from: the operations of option 'mix' for test
+	 *         case 'mix', one operation per depth of option 'traversalDepth' for the traversal test cases with several
+	 *         depths, the primary and the secondary index for the index test cases with option 'indexCompare',
+	 *         otherwise none
+	 */
+	static List<MixedWorker.Operation> operations(
+		final CliOptions options,
+		final TestCase test,
+		final List<MixedWorker.Operation> mix) {
+		if (test == TestCase.MIX) {
+			return mix;
+		}
+		if ((test == TestCase.TRAVERSAL_OUTBOUND || test == TestCase.TRAVERSAL_ANY)
+				&& options.getTraversalDepth().size() > 1) {
+			return options.getTraversalDepth().stream()
+					.map(depth -> new MixedWorker.Operation("depth" + depth, test, 1, false,
+							(b, o, n, r, k, d) -> new TraversalTestCase(b, o, n, r, k, test, depth)))
+					.collect(Collectors.toList());
+		}
+		if (isIndex(test) && options.getIndexCompare()) {
+			return Arrays.asList(
+				new MixedWorker.Operation(OPERATION_PRIMARY, test, 1, false,
+						(b, o, n, r, k, d) -> new IndexTestCase(b, o, n, r, k, test, IndexTestCase.PRIMARY_INDEX_FIELD)),
+				new MixedWorker.Operation(OPERATION_INDEX, test, 1, false,
+						(b, o, n, r, k, d) -> new IndexTestCase(b, o, n, r, k, test, o.getIndexField())));
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return the operation the other operations of the given test case are compared with in the summary, {@code null}
+	 *         if they are not compared
+	 */
+	static String baseline(final CliOptions options, final TestCase test) {
+		return isIndex(test) && options.getIndexCompare() ? OPERATION_PRIMARY : null;
+	}
+
+	private static boolean isIndex(final TestCase test) {
+		return test == TestCase.INDEX_GET || test == TestCase.INDEX_RANGE || test == TestCase.INDEX_IN;
+	}
+
+	/**
+	 * @return whether any of the test cases, directly or in option 'mix', queries the view of option 'docView'
+	 */
+	private static boolean searches(final CliOptions options) {
+		final Stream<String> tests = Stream.concat(
+			options.getTest() != null ? options.getTest().stream().map(test -> test.toString().toLowerCase())
+					: Stream.empty(),
+			options.getMix() != null ? options.getMix().stream().map(entry -> entry.split(":")[0].trim().toLowerCase())
+					: Stream.empty());
+		return tests.anyMatch(test -> test.startsWith("search_"));
+	}
+
+	static List<String> operationNames(final List<MixedWorker.Operation> operations) {
+		return operations.stream().map(MixedWorker.Operation::getName).collect(Collectors.toList());
+	}
+
+	/**
+	 * Parses option 'mix' (comma separated list of &lt;test case&gt;:&lt;weight&gt;).
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the option is missing or invalid
+	 */
+	private static List<MixedWorker.Operation> createOperations(final CliOptions options) {
+		final Collection<String> mix = options.getMix();
+		if (mix == null || mix.isEmpty()) {
+			throw new IllegalArgumentException("Test case \"mix\" requires option 'mix'");
+		}
+		final List<MixedWorker.Operation> operations = new ArrayList<>();
+		for (final String entry : mix) {
+			final String[] e = entry.split(":");
+			TestCase test = null;
+			int weight = 0;
+			if (e.length == 2) {
+				try {
+					test = TestCase.valueOf(e[0].trim().toUpperCase());
+					weight = Integer.parseInt(e[1].trim());
+				} catch (final IllegalArgumentException ex) {
+				}
+			}
+			if (test == null || weight <= 0) {
+				throw new IllegalArgumentException(String
+						.format("Invalid entry \"%s\" in option 'mix', expected <test case>:<weight>", entry));
+			}
+			final ArangoTestCase.InstanceCreator testCreator = test != TestCase.MIX ? createTestCreator(test) : null;
+			if (testCreator == null) {
+				throw new IllegalArgumentException(
+						String.format("Test case \"%s\" is not supported in option 'mix'", e[0].trim()));
 			}
+			operations.add(new MixedWorker.Operation(test, weight, isInsert(test), testCreator));
 		}
+		return operations;
+	}
+
+	private static InstanceCreator createAsyncCreator(
+		final CliOptions options,
+		final ArangoDBAsync.Builder builder,
+		final TestCase test,
+		final int run,
+		final int keyThreads) {
+		final InstanceCreator creator;
+		switch (test) {
+		case DOCUMENT_GET:
+			creator = (num, recorders) -> new AsyncWorker(builder, options, num, recorders,
+					(b, o, n, r, k, d) -> new AsyncDocumentReadTestCase(b, o, n, r, k), null, run, keyThreads);
+			break;
+		case DOCUMENT_INSERT:
+			creator = (num, recorders) -> new AsyncWorker(builder, options, num, recorders,
+					(b, o, n, r, k, d) -> new AsyncDocumentInsertTestCase(b, o, n, r, k, d),
+					new DocumentCreator(options, num, keyThreads), run, keyThreads);
+			break;
+		case DOCUMENT_UPDATE:
+			creator = (num, recorders) -> new AsyncWorker(builder, options, num, recorders,
+					(b, o, n, r, k, d) -> new AsyncDocumentUpdateTestCase(b, o, n, r, k, d),
+					new DocumentCreator(options, num, keyThreads), run, keyThreads);
+			break;
+		case DOCUMENT_REPLACE:
+			creator = (num, recorders) -> new AsyncWorker(builder, options, num, recorders,
+					(b, o, n, r, k, d) -> new AsyncDocumentReplaceTestCase(b, o, n, r, k, d),
+					new DocumentCreator(options, num, keyThreads), run, keyThreads);
+			break;
+		default:
+			creator = null;
+			break;
+		}
+		return creator;
 	}
 
 	private void run(
 		final CliOptions options,
 		final TestCase testCase,
 		final InstanceCreator creator,
+		final List<String> operations,
+		final int run,
 		final PrintStream out) throws InterruptedException, IOException {
-		if (options.getVerbose()) {
-			out.println(String.format("## TEST CASE \"%s\". %s threads, %s connections/thread, %s protocol",
-				testCase.toString().toLowerCase(), options.getThreads(), options.getConnections(),
-				options.getProtocol().toString().toLowerCase()));
-		}
+		printTestCase(options, testCase, threads(options), out);
 
-		final Map<String, Collection<Long>> times = new ConcurrentHashMap<>();
-		final ThreadWorker[] workers = new ThreadWorker[options.getThreads()];
+		final LoadSteps steps = LoadSteps.create(options);
+		final boolean stepThreads = steps != null && !steps.isRates();
+		final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+		final Worker[] workers = new Worker[stepThreads ? steps.getMaxThreads() : options.getThreads()];
 		for (int i = 0; i < workers.length; i++) {
-			workers[i] = creator.create(i, times);
+			workers[i] = creator.create(i, recorders);
 		}
-		for (int i = 0; i < workers.length; i++) {
-			workers[i].start();
+		if (listener != null) {
+			listener.testStarting(testCase, run);
+		}
+		final SchedulingProbe probe = options.getVirtualThreads() ? new SchedulingProbe(true) : null;
+		if (probe != null) {
+			probe.start();
+		}
+		final Warmup warmup = Warmup.create(options);
+		final int threads = stepThreads ? steps.getThreads() : workers.length;
+		if (steps != null) {
+			steps.start();
+		}
+		for (int i = 0; i < threads; i++) {
+			workers[i].start(warmup, steps);
+		}
+		final String type = testCase.toString().toLowerCase();
+		final LatencyReport report = new LatencyReport(options, type, threads, operations, probe != null, warmup,
+			out);
+		report.setBaseline(baseline(options, testCase));
+		try (HistogramLog log = createHistogramLog(options, type, run)) {
+			collectData(options, recorders, probe != null ? probe.getRecorder() : null, report, run, log, warmup,
+				steps, workers, out);
 		}
-		collectData(options, times, testCase.toString().toLowerCase(), out, workers);
 		for (int i = 0; i < workers.length; i++) {
 			workers[i].join();
 		}
+		if (probe != null) {
+			probe.stop();
+		}
 		for (int i = 0; i < workers.length; i++) {
 			workers[i].close();
 		}
+		ArangoTestCase.closeShared();
+		if (listener != null) {
+			listener.testFinished();
+		}
+	}
+
+	/**
+	 * @return the number of client threads as printed in the description of a test case, the thread counts of the
+	 *         steps with option 'ramp'
+	 */
+	static String threads(final CliOptions options) {
+		if (options.getRamp() != null && options.getRate() == 0) {
+			return options.getRamp().stream().map(String::valueOf).collect(Collectors.joining(","));
+		}
+		return String.valueOf(options.getThreads());
+	}
+
+	/**
+	 * Prints the description of the given test case, if option 'verbose' is set.
+	 *
+	 * @param threads
+	 *            the number of client threads
+	 */
+	static void printTestCase(
+		final CliOptions options,
+		final TestCase testCase,
+		final String threads,
+		final PrintStream out) {
+		if (!options.getVerbose()) {
+			return;
+		}
+		final String description = threads + (options.getVirtualThreads() ? " virtual" : "");
+		final String connections = options.getVirtualThreads() ? "shared connections" : "connections/thread";
+		if (options.getInflight() > 0) {
+			out.println(String.format(
+				"## TEST CASE \"%s\". %s threads, %s connections/thread, %s in-flight/connection, vst protocol (async)",
+				testCase.toString().toLowerCase(), description, options.getConnections(), options.getInflight()));
+		} else {
+			out.println(String.format("## TEST CASE \"%s\". %s threads, %s %s, %s protocol",
+				testCase.toString().toLowerCase(), description, options.getConnections(), connections,
+				options.getProtocol().toString().toLowerCase()));
+		}
+		if (testCase == TestCase.MIX) {
+			out.println(String.format("## MIX %s. every operation type has its own connections",
+				String.join(",", options.getMix())));
+		}
+		if ((testCase == TestCase.TRAVERSAL_OUTBOUND || testCase == TestCase.TRAVERSAL_ANY)
+				&& options.getTraversalDepth().size() > 1) {
+			out.println(String.format("## DEPTHS %s. every depth has its own connections",
+				options.getTraversalDepth().stream().map(String::valueOf).collect(Collectors.joining(","))));
+		}
+		if (testCase == TestCase.AQL_CURSOR) {
+			out.println(String.format("## CURSOR %s documents per query, batch size %s, stream %s",
+				options.getCursorLimit() > 0 ? options.getCursorLimit() : "all", options.getCursorBatchSize(),
+				options.getCursorStream()));
+		}
+		if (testCase == TestCase.SEARCH_TOKENS || testCase == TestCase.SEARCH_PHRASE) {
+			out.println(String.format("## SEARCH %s words per query out of %s, %s documents per query",
+				options.getSearchTerms(), options.getDocVocabulary(), options.getSearchLimit()));
+		}
+		if (isIndex(testCase)) {
+			out.println(String.format("## INDEX field %s%s", options.getIndexField(),
+				options.getIndexCompare() ? ". compared with the primary index, every index has its own connections"
+						: ""));
+		}
+		if (testCase == TestCase.SEARCH_LAG) {
+			out.println(String.format("## SEARCH LAG poll interval %s ms, consolidation interval %s",
+				options.getSearchPollInterval(), options.getDocViewConsolidationInterval() > 0
+						? options.getDocViewConsolidationInterval() + " ms" : "server default"));
+		}
+		if (options.getRamp() != null) {
+			out.println(String.format("## RAMP %s %s. %s seconds per step", options.getRate() > 0 ? "rates" : "threads",
+				options.getRamp().stream().map(String::valueOf).collect(Collectors.joining(",")),
+				options.getRampStep()));
+		}
+		if (options.getSloLatency() > 0) {
+			out.println(String.format("## SLO SEARCH %s response time <= %s ms. first rate %s, %s seconds per step",
+				SloSearch.percentile(options.getSloPercentile()), options.getSloLatency(), options.getRate(),
+				options.getRampStep()));
+		}
 	}
 
 	private void collectData(
 		final CliOptions options,
-		final Map<String, Collection<Long>> times,
-		final String type,
-		final PrintStream out,
-		final ThreadWorker[] workers) {
-		final Integer numThreads = options.getThreads();
-		final int batchSize = options.getBatchSize();
+		final Map<String, LatencyRecorder> recorders,
+		final LatencyRecorder schedulingRecorder,
+		final LatencyReport report,
+		final int run,
+		final HistogramLog log,
+		final Warmup warmup,
+		final LoadSteps steps,
+		final Worker[] workers,
+		final PrintStream out) throws IOException {
 		final int sleep = options.getOutputInterval() * 1000;
-		int numberOfRuns = 0;
-		double totalDocuments = 0.0;
-		out.println(
-			"elapsed time (sec),threads,requests,documents,throughput,latency average (ms),latency min (ms),latency max (ms),latency 50th (ms),latency 95th (ms),latency 99th (ms)");
+		report.printHeader();
 		boolean alive = true;
+		long intervalStart = System.currentTimeMillis();
 		while (alive) {
 			try {
 				Thread.sleep(sleep);
 			} catch (final InterruptedException e) {
 			}
-			++numberOfRuns;
+			final long intervalEnd = System.currentTimeMillis();
 			alive = Stream.of(workers).filter(worker -> worker.isAlive()).count() > 0;
-			List<Long> requests = new ArrayList<>();
-			times.values().forEach(requests::addAll);
-			times.values().forEach(Collection::clear);
-			requests = requests.stream().filter(i -> i != null).sorted().collect(Collectors.toList());
-			final int numRequests = requests.size();
-			final Double average, min, max, p50th, p95th, p99th;
-			if (numRequests > 0) {
-				totalDocuments += numRequests * batchSize;
-				average = toMs(requests.stream().reduce((a, b) -> a + b).map(e -> e / numRequests).orElse(0L));
-				min = toMs(requests.get(0));
-				max = toMs(requests.get(numRequests - 1));
-				p50th = toMs(requests.get((int) ((numRequests * 0.5) - 1)));
-				p95th = toMs(requests.get((int) ((numRequests * 0.95) - 1)));
-				p99th = toMs(requests.get((int) ((numRequests * 0.99) - 1)));
-			} else {
-				average = min = max = p50th = p95th = p99th = 0.;
+			report.startInterval();
+			recorders.forEach((name, recorder) -> {
+				if (name.startsWith(LatencyRecorder.HOST_PREFIX)) {
+					report.getHostLatencies(name.substring(LatencyRecorder.HOST_PREFIX.length()))
+							.addIntervalOf(recorder);
+					return;
+				}
+				if (name.startsWith(LatencyRecorder.PHASE_PREFIX)) {
+					report.getPhaseLatencies(name.substring(LatencyRecorder.PHASE_PREFIX.length()))
+							.addIntervalOf(recorder);
+					return;
+				}
+				final int separator = name.indexOf(Worker.OPERATION_SEPARATOR);
+				(separator >= 0 ? report.getOperationLatencies().get(name.substring(0, separator))
+						: report.getLatencies()).addIntervalOf(recorder);
+			});
+			if (schedulingRecorder != null) {
+				schedulingRecorder.addIntervalTo(report.getSchedulingDelays());
+			}
+			report.completeInterval();
+			if (steps != null && steps.completeInterval(report, out) && !steps.isRates()) {
+				for (int i = report.getThreads(); i < steps.getThreads(); i++) {
+					workers[i].start(warmup, steps);
+				}
+				report.setThreads(steps.getThreads());
+			}
+			if (log != null) {
+				log.write(report, intervalStart, intervalEnd);
 			}
-			// NumberOfRuns > 0 and sleep > 0
-			final double throughput = totalDocuments / (numberOfRuns * (sleep / 1000));
-			final Number[] d = new Number[] { numberOfRuns * (sleep / 1000), numThreads, numRequests,
-					numRequests * batchSize, throughput, average, min, max, p50th, p95th, p99th };
-			out.println(Stream.of(d).map(n -> n.toString()).reduce((a, b) -> a + "," + b).get());
+			if (metrics != null) {
+				metrics.update(report, run);
+			}
+			if (listener != null) {
+				listener.interval(report);
+			}
+			intervalStart = intervalEnd;
+		}
+		report.printSummary();
+		if (steps != null) {
+			steps.printSummary(report.getType(), out);
 		}
-	}
-
-	private static Double toMs(final Long nanoSec) {
-		final Double microSec = (double) (nanoSec / 1000);
-		final Double milliSec = microSec / 1000;
-		return milliSec;
 	}
 
 }
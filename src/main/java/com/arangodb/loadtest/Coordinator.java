@@ -0,0 +1,275 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.HistogramLog;
+import com.arangodb.loadtest.metrics.LatencyReport;
+import com.arangodb.loadtest.metrics.MetricsServer;
+import com.arangodb.loadtest.metrics.LoadSteps;
+import com.arangodb.loadtest.metrics.Warmup;
+import com.arangodb.loadtest.testcase.TestCase;
+import com.arangodb.loadtest.worker.MixedWorker;
+
+/**
+ * Distributes the load to the agents of option 'agents' (see {@link Agent}) and prints one merged report. Every agent
+ * runs the test cases with the options of the coordinator. The test cases are started on all agents at the same time
+ * and the histograms of the output intervals of all agents are merged before they are printed.
+ *
+ * @author Mark Vollmary
+ *
+ */
+final class Coordinator {
+
+	private static final String AGENTS_OPTION = "--agents";
+
+	private static class AgentConnection implements Closeable {
+		private final String address;
+		private final Socket socket;
+		private final DataInputStream in;
+		private final DataOutputStream out;
+
+		public AgentConnection(final String address) throws IOException {
+			super();
+			this.address = address;
+			final String[] hostAndPort = address.split(":");
+			if (hostAndPort.length != 2) {
+				throw new IllegalArgumentException(
+						String.format("Invalid agent \"%s\" in option 'agents', expected <host>:<port>", address));
+			}
+			socket = new Socket(hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+			socket.setTcpNoDelay(true);
+			in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		}
+
+		/**
+		 * @return the type of the next message, the message is consumed if it is an error
+		 */
+		public byte read() throws IOException {
+			final byte type = in.readByte();
+			if (type == AgentProtocol.ERROR) {
+				throw new IOException(String.format("Agent %s failed: %s", address, in.readUTF()));
+			}
+			return type;
+		}
+
+		public IOException unexpected(final byte type) {
+			return new IOException(String.format("Unexpected message %s from agent %s", type, address));
+		}
+
+		@Override
+		public void close() throws IOException {
+			socket.close();
+		}
+	}
+
+	private final CliOptions options;
+	private final String[] args;
+	private final List<MixedWorker.Operation> operations;
+	private final MetricsServer metrics;
+
+	/**
+	 * @param args
+	 *            the command line arguments, passed to the agents without option 'agents'
+	 * @param metrics
+	 *            updated with the merged latencies, may be {@code null}
+	 */
+	public Coordinator(final CliOptions options, final String[] args, final List<MixedWorker.Operation> operations,
+		final MetricsServer metrics) {
+		super();
+		this.options = options;
+		this.args = args;
+		this.operations = operations;
+		this.metrics = metrics;
+	}
+
+	public void run(final PrintStream out) throws Exception {
+		final List<AgentConnection> agents = new ArrayList<>();
+		try {
+			for (final String address : options.getAgents().split(",")) {
+				agents.add(new AgentConnection(address.trim()));
+			}
+			final List<String> agentArgs = agentArgs();
+			for (int i = 0; i < agents.size(); i++) {
+				final DataOutputStream agentOut = agents.get(i).out;
+				agentOut.writeByte(AgentProtocol.HELLO);
+				agentOut.writeInt(AgentProtocol.VERSION);
+				agentOut.writeInt(i);
+				agentOut.writeInt(agentArgs.size());
+				for (final String arg : agentArgs) {
+					agentOut.writeUTF(arg);
+				}
+				agentOut.flush();
+			}
+			for (final AgentConnection agent : agents) {
+				final byte type = agent.read();
+				if (type != AgentProtocol.READY) {
+					throw agent.unexpected(type);
+				}
+			}
+			if (!options.getStub()) {
+				App.setup(options, App.createBuilder(options, null), operations);
+			}
+			if (options.getVerbose()) {
+				out.println(String.format("## AGENTS %s", options.getAgents()));
+			}
+			run(agents, out);
+		} finally {
+			for (final AgentConnection agent : agents) {
+				agent.close();
+			}
+		}
+	}
+
+	private List<String> agentArgs() {
+		final List<String> agentArgs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (AGENTS_OPTION.equals(args[i])) {
+				i++;
+			} else {
+				agentArgs.add(args[i]);
+			}
+		}
+		return agentArgs;
+	}
+
+	private void run(final List<AgentConnection> agents, final PrintStream out) throws IOException {
+		int currentRun = -1;
+		while (true) {
+			// every agent either starts the same test case or is done
+			String test = null;
+			int run = -1;
+			int done = 0;
+			for (final AgentConnection agent : agents) {
+				final byte type = agent.read();
+				if (type == AgentProtocol.DONE) {
+					done++;
+				} else if (type == AgentProtocol.TEST_READY) {
+					final String agentTest = agent.in.readUTF();
+					final int agentRun = agent.in.readInt();
+					if (test != null && (!test.equals(agentTest) || run != agentRun)) {
+						throw new IOException("Agents are out of sync");
+					}
+					test = agentTest;
+					run = agentRun;
+				} else {
+					throw agent.unexpected(type);
+				}
+			}
+			if (done == agents.size()) {
+				return;
+			}
+			if (done > 0) {
+				throw new IOException("Agents are out of sync");
+			}
+			if (run != currentRun && options.getVerbose()) {
+				out.println("# RUN " + (run + 1));
+			}
+			currentRun = run;
+			final TestCase testCase = TestCase.valueOf(test);
+			App.printTestCase(options, testCase, String.format("%s agents x %s", agents.size(), App.threads(options)),
+				out);
+			for (final AgentConnection agent : agents) {
+				agent.out.writeByte(AgentProtocol.GO);
+				agent.out.flush();
+			}
+			final LoadSteps steps = LoadSteps.create(options);
+			final LatencyReport report = new LatencyReport(options, test.toLowerCase(),
+					agents.size() * (steps != null && !steps.isRates() ? steps.getThreads() : options.getThreads()),
+					App.operationNames(App.operations(options, testCase, operations)), options.getVirtualThreads(),
+					Warmup.NONE, out);
+			report.setBaseline(App.baseline(options, testCase));
+			try (HistogramLog log = App.createHistogramLog(options, report.getType(), run)) {
+				collectData(agents, report, steps, run, log, out);
+			}
+		}
+	}
+
+	/**
+	 * Merges the intervals of all agents until every agent finished the test case. The n-th interval of the report
+	 * consists of the n-th interval of every agent. Every agent detects the end of its warmup on its own, an interval
+	 * belongs to the warmup as long as any agent is still warming up. The steps of the ramp (option 'ramp') are
+	 * controlled by every agent on its own, the coordinator follows them by counting the intervals.
+	 */
+	private void collectData(
+		final List<AgentConnection> agents,
+		final LatencyReport report,
+		final LoadSteps steps,
+		final int run,
+		final HistogramLog log,
+		final PrintStream out) throws IOException {
+		report.printHeader();
+		final boolean[] finished = new boolean[agents.size()];
+		int running = agents.size();
+		long intervalStart = System.currentTimeMillis();
+		while (running > 0) {
+			report.startInterval();
+			boolean received = false;
+			for (int i = 0; i < agents.size(); i++) {
+				if (finished[i]) {
+					continue;
+				}
+				final AgentConnection agent = agents.get(i);
+				final byte type = agent.read();
+				if (type == AgentProtocol.INTERVAL) {
+					AgentProtocol.readInterval(agent.in, report);
+					received = true;
+				} else if (type == AgentProtocol.TEST_END) {
+					finished[i] = true;
+					running--;
+				} else {
+					throw agent.unexpected(type);
+				}
+			}
+			if (received) {
+				final long intervalEnd = System.currentTimeMillis();
+				report.completeInterval();
+				if (steps != null && steps.completeInterval(report, out) && !steps.isRates()) {
+					report.setThreads(agents.size() * steps.getThreads());
+				}
+				if (log != null) {
+					log.write(report, intervalStart, intervalEnd);
+				}
+				if (metrics != null) {
+					metrics.update(report, run);
+				}
+				intervalStart = intervalEnd;
+			}
+		}
+		report.printSummary();
+		if (steps != null) {
+			steps.printSummary(report.getType(), out);
+		}
+	}
+
+}
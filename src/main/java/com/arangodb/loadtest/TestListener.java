@@ -0,0 +1,52 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest;
+
+import java.io.IOException;
+
+import com.arangodb.loadtest.metrics.LatencyReport;
+import com.arangodb.loadtest.testcase.TestCase;
+
+/**
+ * Is notified about the progress of the test cases, used by {@link Agent} to synchronize with and report to the
+ * coordinator.
+ *
+ * @author Mark Vollmary
+ *
+ */
+interface TestListener {
+
+	/**
+	 * Called after the workers of a test case were created and before they are started.
+	 */
+	void testStarting(TestCase test, int run) throws IOException;
+
+	/**
+	 * Called at the end of every output interval, after the interval was completed.
+	 */
+	void interval(LatencyReport report) throws IOException;
+
+	/**
+	 * Called after all workers of a test case finished.
+	 */
+	void testFinished() throws IOException;
+
+}
@@ -35,12 +35,36 @@ public class CliOptions {
 	@CliOptionInfo(description = "comma separeted list of test cases to use", opt = "t", required = true, componentType = TestCase.class)
 	private Collection<TestCase> test;
 
+	@CliOptionInfo(description = "comma separated list of test cases with weights (test case 'mix'), e.g. document_get:80,document_update:15,document_insert:5", componentType = String.class)
+	private Collection<String> mix;
+
 	@CliOptionInfo(description = "number of operations per thread", defaultValue = "1000")
 	private Integer requests;
 
 	@CliOptionInfo(description = "number of seconds the test should run (if > 0 the option 'requests' is ignored)", defaultValue = "0")
 	private Integer duration;
 
+	@CliOptionInfo(description = "warmup before every test case, excluded from the results: <seconds>s (e.g. 30s), <operations> of all threads (e.g. 10000) or auto (until throughput and latency are stable)", defaultValue = "0")
+	private String warmup;
+
+	@CliOptionInfo(description = "target throughput in operations per second. if > 0 operations are issued on a fixed schedule (open loop) and the response time is measured from the scheduled start time", defaultValue = "0")
+	private Integer rate;
+
+	@CliOptionInfo(description = "whether the option 'rate' applies to all threads together or to each thread", defaultValue = "global")
+	private RateScope rateScope;
+
+	@CliOptionInfo(description = "comma separated list of thread counts (or with option 'rate' target rates) to step through within one test case, e.g. 8,16,32,64. the options 'threads' (unless option 'rate'), 'requests' and 'duration' are ignored", componentType = Integer.class)
+	private Collection<Integer> ramp;
+
+	@CliOptionInfo(description = "number of seconds each step of option 'ramp' or of the SLO search (option 'sloLatency') is held", defaultValue = "10")
+	private Integer rampStep;
+
+	@CliOptionInfo(description = "latency SLO in ms. if > 0 the maximum rate meeting the SLO is searched, starting with option 'rate'", defaultValue = "0")
+	private Double sloLatency;
+
+	@CliOptionInfo(description = "percentile of the response time which has to meet option 'sloLatency'", defaultValue = "99")
+	private Double sloPercentile;
+
 	@CliOptionInfo(description = "run test n times. drop database between runs", defaultValue = "1")
 	private Integer runs;
 
@@ -50,6 +74,15 @@ public class CliOptions {
 	@CliOptionInfo(description = "comma separated list of endpoints to connect to", opt = "e", defaultValue = "127.0.0.1:8529")
 	private String endpoints;
 
+	@CliOptionInfo(description = "comma separated list of agents (host:port) to run the test cases on. every agent generates the load configured by the other options")
+	private String agents;
+
+	@CliOptionInfo(description = "run against an embedded stub server with canned responses instead of ArangoDB (option 'endpoints' is ignored), to measure the overhead of the load test itself", defaultValue = "false")
+	private Boolean stub;
+
+	@CliOptionInfo(description = "delay (in microseconds) of every response of the stub server", defaultValue = "0")
+	private Integer stubDelay;
+
 	@CliOptionInfo(description = "username to use when connecting", opt = "u", defaultValue = "root")
 	private String user;
 
@@ -62,6 +95,9 @@ public class CliOptions {
 	@CliOptionInfo(description = "number of parallel client threads", defaultValue = "1")
 	private Integer threads;
 
+	@CliOptionInfo(description = "run each client thread on a virtual thread (requires Java 21 or newer). the virtual threads share the connections of one driver per operation (option 'connections')", defaultValue = "false")
+	private Boolean virtualThreads;
+
 	@CliOptionInfo(description = "network protocol to use", defaultValue = "vst")
 	private Protocol protocol;
 
@@ -74,6 +110,9 @@ public class CliOptions {
 	@CliOptionInfo(description = "number of parallel connections per thread", defaultValue = "1")
 	private Integer connections;
 
+	@CliOptionInfo(description = "number of in-flight operations per connection. if > 0 the operations are issued through the asynchronous driver (vst only, test cases: document_get, document_insert, document_update, document_replace)", defaultValue = "0")
+	private Integer inflight;
+
 	@CliOptionInfo(description = "drop DB before run", defaultValue = "false")
 	private Boolean dropDB;
 
@@ -92,6 +131,18 @@ public class CliOptions {
 	@CliOptionInfo(description = "edge collection name to use in graph", defaultValue = "ArangoJavaBenchmarkEdge")
 	private String edgeCollection;
 
+	@CliOptionInfo(description = "how the generated edges connect the vertices (zipfian: uniform sources and zipfian targets, rmat: recursive matrix, barabasi_albert: preferential attachment)", defaultValue = "zipfian")
+	private GraphModel graphModel;
+
+	@CliOptionInfo(description = "average number of outgoing edges per vertex. the edges of option 'preload' per vertex, with option 'graphModel' barabasi_albert the edges every vertex attaches with. without option 'keySpace' the edge test cases connect the edges to requests * batchSize / graphDegree vertices per thread", defaultValue = "1")
+	private Integer graphDegree;
+
+	@CliOptionInfo(description = "comma separated list of the maximum numbers of hops of the test cases 'traversal_outbound' and 'traversal_any'. with several depths every depth is reported as an operation of its own", defaultValue = "2", componentType = Integer.class)
+	private Collection<Integer> traversalDepth;
+
+	@CliOptionInfo(description = "number of paths of test case 'k_shortest_paths'", defaultValue = "3")
+	private Integer kPaths;
+
 	@CliOptionInfo(description = "number of shards of created collections", defaultValue = "1")
 	private Integer numberOfShards;
 
@@ -104,9 +155,36 @@ public class CliOptions {
 	@CliOptionInfo(description = "document key prefix (necessary only when run multiple times)")
 	private String keyPrefix;
 
+	@CliOptionInfo(description = "distribution of the keys of operations on existing documents (sequential: the keys inserted by the same thread, latest: zipfian, most recently inserted first)", defaultValue = "sequential")
+	private KeyDistribution keyDistribution;
+
+	@CliOptionInfo(description = "number of previously inserted documents per thread to choose from with option 'keyDistribution' (0: requests * batchSize)", defaultValue = "0")
+	private Integer keySpace;
+
+	@CliOptionInfo(description = "skew of key distributions \"zipfian\" and \"latest\" and of the targets of the generated edges (between 0 and 1, exclusive)", defaultValue = "0.99")
+	private Double zipfianTheta;
+
+	@CliOptionInfo(description = "fraction of the key space which is hot with key distribution \"hotspot\"", defaultValue = "0.2")
+	private Double hotspotKeyFraction;
+
+	@CliOptionInfo(description = "fraction of the operations on the hot keys with key distribution \"hotspot\"", defaultValue = "0.8")
+	private Double hotspotOpFraction;
+
+	@CliOptionInfo(description = "number of documents to insert with parallel bulk imports into the collections of the reading and modifying test cases before every run. the keys are spread over the keys option 'threads' would insert, option 'keySpace' is set to the documents per thread and recorded in collection \"loadtest_preload\" for later runs without option 'preload'", defaultValue = "0")
+	private Integer preload;
+
+	@CliOptionInfo(description = "number of threads of option 'preload'", defaultValue = "8")
+	private Integer preloadThreads;
+
+	@CliOptionInfo(description = "number of documents per import of option 'preload'", defaultValue = "10000")
+	private Integer preloadBatchSize;
+
 	@CliOptionInfo(description = "automatic acquire list of endpoints to use for load balancing", defaultValue = "false")
 	private Boolean acquireHostList;
 
+	@CliOptionInfo(description = "record the latencies per host the driver sends the requests to (options 'loadBalancing', 'acquireHostList') and print them per output interval and in the summary (option 'verbose')", defaultValue = "false")
+	private Boolean hostLatencies;
+
 	@CliOptionInfo(description = "output interval in seconds", defaultValue = "1")
 	private Integer outputInterval;
 
@@ -134,6 +212,15 @@ public class CliOptions {
 	@CliOptionInfo(description = "max depth of nested objects in the documents", defaultValue = "1")
 	private Integer docNestingDepth;
 
+	@CliOptionInfo(description = "serialize the documents once and only replace the document key per request (document insert/update/replace)", defaultValue = "false")
+	private Boolean docPayloadPool;
+
+	@CliOptionInfo(description = "create every document with content of its own instead of reusing the content of the previous ones. slower, but gives the fields of the documents a realistic selectivity (e.g. for the index test cases)", defaultValue = "false")
+	private Boolean docUnique;
+
+	@CliOptionInfo(description = "file created with command 'dataset' whose documents are sent instead of random ones (implies option 'docPayloadPool')")
+	private String dataset;
+
 	@CliOptionInfo(description = "comma separated list of types of indexes on String fields", componentType = Index.class)
 	private Collection<Index> docIndexSimple;
 
@@ -150,9 +237,15 @@ public class CliOptions {
 	private Collection<Index> docIndexObjects;
 
 
-	@CliOptionInfo(description = "if you want to create a view", defaultValue = "false")
+	@CliOptionInfo(description = "if you want to create a view. the ArangoSearch view 'MySearch' links the large String fields (with analyzer 'text_en', their text consists of the words of a generated vocabulary) and the document keys", defaultValue = "false")
 	private Boolean docView;
 
+	@CliOptionInfo(description = "number of distinct words of the text in the large String fields with option 'docView'", defaultValue = "10000")
+	private Integer docVocabulary;
+
+	@CliOptionInfo(description = "consolidation interval (in milliseconds) of the view of option 'docView', which also decides how soon inserted documents become searchable. 0: server default", defaultValue = "0")
+	private Integer docViewConsolidationInterval;
+
 	@CliOptionInfo(description = "number of nexted objects to be indexed", defaultValue = "1")
 	private Integer docNumIndexObjects;
 
@@ -168,12 +261,39 @@ public class CliOptions {
 	@CliOptionInfo(description = "File path of output file", defaultValue = "")
 	private String outputFile;
 
+	@CliOptionInfo(description = "directory to write the latency histograms of every output interval to. one HdrHistogram log per test case and run")
+	private String histogramLogDir;
+
+	@CliOptionInfo(description = "port of an OpenMetrics endpoint (path /metrics) with the throughput, errors and latencies of the running test case. 0 = disabled", defaultValue = "0")
+	private Integer metricsPort;
+
 	@CliOptionInfo(description = "AQL cursor batch size", defaultValue = "1000")
 	private Integer cursorBatchSize;
 
 	@CliOptionInfo(description = "AQL cursor stream", defaultValue = "false")
 	private Boolean cursorStream;
 
+	@CliOptionInfo(description = "number of documents per query of test case 'aql_cursor', read in key order from a chosen key on. 0: all documents of the collection", defaultValue = "10000")
+	private Integer cursorLimit;
+
+	@CliOptionInfo(description = "number of words per query of test cases 'search_tokens' and 'search_phrase'", defaultValue = "2")
+	private Integer searchTerms;
+
+	@CliOptionInfo(description = "maximum number of documents per query of test cases 'search_tokens' and 'search_phrase', sorted by relevance (BM25)", defaultValue = "10")
+	private Integer searchLimit;
+
+	@CliOptionInfo(description = "interval (in milliseconds) in which test case 'search_lag' queries the view until an inserted document is searchable", defaultValue = "10")
+	private Integer searchPollInterval;
+
+	@CliOptionInfo(description = "indexed field queried by the index test cases, e.g. simple0, large0, array0 or object0 (see options 'docIndexSimple', 'docIndexLargeSimple', 'docIndexArrays' and 'docIndexObjects')", defaultValue = "simple0")
+	private String indexField;
+
+	@CliOptionInfo(description = "number of documents per query of test case 'index_range'", defaultValue = "10")
+	private Integer indexLimit;
+
+	@CliOptionInfo(description = "run the index test cases also on the primary index and compare the latencies", defaultValue = "false")
+	private Boolean indexCompare;
+
 	@CliOptionInfo(description = "Custom AQL query (supported bind params: @@collection, @@vertex, @@edge, @graph, @doc, @docs, @key, @@keys)", defaultValue = "")
 	private String query;
 
@@ -189,6 +309,14 @@ public class CliOptions {
 		this.test = test;
 	}
 
+	public Collection<String> getMix() {
+		return mix;
+	}
+
+	public void setMix(final Collection<String> mix) {
+		this.mix = mix;
+	}
+
 	public Integer getRequests() {
 		return requests;
 	}
@@ -205,6 +333,62 @@ public class CliOptions {
 		this.duration = duration;
 	}
 
+	public String getWarmup() {
+		return warmup;
+	}
+
+	public void setWarmup(final String warmup) {
+		this.warmup = warmup;
+	}
+
+	public Integer getRate() {
+		return rate;
+	}
+
+	public void setRate(final Integer rate) {
+		this.rate = rate;
+	}
+
+	public RateScope getRateScope() {
+		return rateScope;
+	}
+
+	public void setRateScope(final RateScope rateScope) {
+		this.rateScope = rateScope;
+	}
+
+	public Collection<Integer> getRamp() {
+		return ramp;
+	}
+
+	public void setRamp(final Collection<Integer> ramp) {
+		this.ramp = ramp;
+	}
+
+	public Integer getRampStep() {
+		return rampStep;
+	}
+
+	public void setRampStep(final Integer rampStep) {
+		this.rampStep = rampStep;
+	}
+
+	public Double getSloLatency() {
+		return sloLatency;
+	}
+
+	public void setSloLatency(final Double sloLatency) {
+		this.sloLatency = sloLatency;
+	}
+
+	public Double getSloPercentile() {
+		return sloPercentile;
+	}
+
+	public void setSloPercentile(final Double sloPercentile) {
+		this.sloPercentile = sloPercentile;
+	}
+
 	public Integer getRuns() {
 		return runs;
 	}
@@ -229,6 +413,30 @@ public class CliOptions {
 		this.endpoints = endpoints;
 	}
 
+	public String getAgents() {
+		return agents;
+	}
+
+	public void setAgents(final String agents) {
+		this.agents = agents;
+	}
+
+	public Boolean getStub() {
+		return stub;
+	}
+
+	public void setStub(final Boolean stub) {
+		this.stub = stub;
+	}
+
+	public Integer getStubDelay() {
+		return stubDelay;
+	}
+
+	public void setStubDelay(final Integer stubDelay) {
+		this.stubDelay = stubDelay;
+	}
+
 	public String getUser() {
 		return user;
 	}
@@ -261,6 +469,14 @@ public class CliOptions {
 		this.threads = threads;
 	}
 
+	public Boolean getVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(final Boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
 	public Boolean getSsl() {
 		return ssl;
 	}
@@ -293,6 +509,14 @@ public class CliOptions {
 		this.connections = connections;
 	}
 
+	public Integer getInflight() {
+		return inflight;
+	}
+
+	public void setInflight(final Integer inflight) {
+		this.inflight = inflight;
+	}
+
 	public Boolean getDropDB() {
 		return dropDB;
 	}
@@ -341,6 +565,38 @@ public class CliOptions {
 		this.edgeCollection = edgeCollection;
 	}
 
+	public GraphModel getGraphModel() {
+		return graphModel;
+	}
+
+	public void setGraphModel(final GraphModel graphModel) {
+		this.graphModel = graphModel;
+	}
+
+	public Integer getGraphDegree() {
+		return graphDegree;
+	}
+
+	public void setGraphDegree(final Integer graphDegree) {
+		this.graphDegree = graphDegree;
+	}
+
+	public Collection<Integer> getTraversalDepth() {
+		return traversalDepth;
+	}
+
+	public void setTraversalDepth(final Collection<Integer> traversalDepth) {
+		this.traversalDepth = traversalDepth;
+	}
+
+	public Integer getKPaths() {
+		return kPaths;
+	}
+
+	public void setKPaths(final Integer kPaths) {
+		this.kPaths = kPaths;
+	}
+
 	public Integer getNumberOfShards() {
 		return numberOfShards;
 	}
@@ -373,6 +629,70 @@ public class CliOptions {
 		this.keyPrefix = keyPrefix;
 	}
 
+	public KeyDistribution getKeyDistribution() {
+		return keyDistribution;
+	}
+
+	public void setKeyDistribution(final KeyDistribution keyDistribution) {
+		this.keyDistribution = keyDistribution;
+	}
+
+	public Integer getKeySpace() {
+		return keySpace;
+	}
+
+	public void setKeySpace(final Integer keySpace) {
+		this.keySpace = keySpace;
+	}
+
+	public Double getZipfianTheta() {
+		return zipfianTheta;
+	}
+
+	public void setZipfianTheta(final Double zipfianTheta) {
+		this.zipfianTheta = zipfianTheta;
+	}
+
+	public Double getHotspotKeyFraction() {
+		return hotspotKeyFraction;
+	}
+
+	public void setHotspotKeyFraction(final Double hotspotKeyFraction) {
+		this.hotspotKeyFraction = hotspotKeyFraction;
+	}
+
+	public Double getHotspotOpFraction() {
+		return hotspotOpFraction;
+	}
+
+	public void setHotspotOpFraction(final Double hotspotOpFraction) {
+		this.hotspotOpFraction = hotspotOpFraction;
+	}
+
+	public Integer getPreload() {
+		return preload;
+	}
+
+	public void setPreload(final Integer preload) {
+		this.preload = preload;
+	}
+
+	public Integer getPreloadThreads() {
+		return preloadThreads;
+	}
+
+	public void setPreloadThreads(final Integer preloadThreads) {
+		this.preloadThreads = preloadThreads;
+	}
+
+	public Integer getPreloadBatchSize() {
+		return preloadBatchSize;
+	}
+
+	public void setPreloadBatchSize(final Integer preloadBatchSize) {
+		this.preloadBatchSize = preloadBatchSize;
+	}
+
 	public Boolean getAcquireHostList() {
 		return acquireHostList;
 	}
@@ -381,6 +701,14 @@ public class CliOptions {
 		this.acquireHostList = acquireHostList;
 	}
 
+	public Boolean getHostLatencies() {
+		return hostLatencies;
+	}
+
+	public void setHostLatencies(final Boolean hostLatencies) {
+		this.hostLatencies = hostLatencies;
+	}
+
 	public Integer getOutputInterval() {
 		return outputInterval;
 	}
@@ -453,6 +781,30 @@ public class CliOptions {
 		this.docNestingDepth = docNestingDepth;
 	}
 
+	public Boolean getDocPayloadPool() {
+		return docPayloadPool;
+	}
+
+	public void setDocPayloadPool(final Boolean docPayloadPool) {
+		this.docPayloadPool = docPayloadPool;
+	}
+
+	public Boolean getDocUnique() {
+		return docUnique;
+	}
+
+	public void setDocUnique(final Boolean docUnique) {
+		this.docUnique = docUnique;
+	}
+
+	public String getDataset() {
+		return dataset;
+	}
+
+	public void setDataset(final String dataset) {
+		this.dataset = dataset;
+	}
+
 	public Collection<Index> getDocIndexSimple() {
 		return docIndexSimple;
 	}
@@ -497,6 +849,22 @@ public class CliOptions {
 		this.docView = docView;
 	}
 
+	public Integer getDocVocabulary() {
+		return docVocabulary;
+	}
+
+	public void setDocVocabulary(final Integer docVocabulary) {
+		this.docVocabulary = docVocabulary;
+	}
+
+	public Integer getDocViewConsolidationInterval() {
+		return docViewConsolidationInterval;
+	}
+
+	public void setDocViewConsolidationInterval(final Integer docViewConsolidationInterval) {
+		this.docViewConsolidationInterval = docViewConsolidationInterval;
+	}
+
 	public void setDocIndexObjects(final Collection<Index> docIndexObjects) {
 		this.docIndexObjects = docIndexObjects;
 	}
@@ -541,6 +909,22 @@ public class CliOptions {
 		this.outputFile = outputFile;
 	}
 
+	public String getHistogramLogDir() {
+		return histogramLogDir;
+	}
+
+	public void setHistogramLogDir(final String histogramLogDir) {
+		this.histogramLogDir = histogramLogDir;
+	}
+
+	public Integer getMetricsPort() {
+		return metricsPort;
+	}
+
+	public void setMetricsPort(final Integer metricsPort) {
+		this.metricsPort = metricsPort;
+	}
+
 	public Integer getCursorBatchSize() {
 		return cursorBatchSize;
 	}
@@ -557,6 +941,62 @@ public class CliOptions {
 		this.cursorStream = cursorStream;
 	}
 
+	public Integer getCursorLimit() {
+		return cursorLimit;
+	}
+
+	public void setCursorLimit(final Integer cursorLimit) {
+		this.cursorLimit = cursorLimit;
+	}
+
+	public Integer getSearchTerms() {
+		return searchTerms;
+	}
+
+	public void setSearchTerms(final Integer searchTerms) {
+		this.searchTerms = searchTerms;
+	}
+
+	public Integer getSearchLimit() {
+		return searchLimit;
+	}
+
+	public void setSearchLimit(final Integer searchLimit) {
+		this.searchLimit = searchLimit;
+	}
+
+	public Integer getSearchPollInterval() {
+		return searchPollInterval;
+	}
+
+	public void setSearchPollInterval(final Integer searchPollInterval) {
+		this.searchPollInterval = searchPollInterval;
+	}
+
+	public String getIndexField() {
+		return indexField;
+	}
+
+	public void setIndexField(final String indexField) {
+		this.indexField = indexField;
+	}
+
+	public Integer getIndexLimit() {
+		return indexLimit;
+	}
+
+	public void setIndexLimit(final Integer indexLimit) {
+		this.indexLimit = indexLimit;
+	}
+
+	public Boolean getIndexCompare() {
+		return indexCompare;
+	}
+
+	public void setIndexCompare(final Boolean indexCompare) {
+		this.indexCompare = indexCompare;
+	}
+
 	public String getQuery() {
 		return query;
 	}
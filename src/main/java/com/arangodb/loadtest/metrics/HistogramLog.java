@@ -0,0 +1,123 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * Writes the latencies of every output interval as compressed histograms in the HdrHistogram log format. Unlike the
+ * percentiles of the CSV output, the histograms of several intervals, runs or clients can be merged into exact
+ * combined percentiles, see {@link HistogramLogMerger}.
+ * <p>
+ * The histograms are tagged with the name of the test case, the operations of test case 'mix' additionally with the
+ * name of the operation (e.g. "mix/document_get"). The response times (option 'rate') are tagged with the additional
+ * suffix {@link #RESPONSE_TIME_TAG_SUFFIX}, the latencies of failed operations with {@link #FAILURE_TAG_SUFFIX}. The
+ * histograms of the warmup intervals get the additional suffix {@link #WARMUP_TAG_SUFFIX}.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class HistogramLog implements Closeable {
+
+	public static final String FILE_EXTENSION = ".hlog";
+	public static final String OPERATION_TAG_SEPARATOR = "/";
+	public static final String RESPONSE_TIME_TAG_SUFFIX = "/response";
+	public static final String FAILURE_TAG_SUFFIX = "/failure";
+	public static final String WARMUP_TAG_SUFFIX = "/warmup";
+	/**
+	 * The recorded values are in nanoseconds, the max values in the log are written in milliseconds.
+	 */
+	private static final double MAX_VALUE_UNIT_RATIO = 1000.0 * 1000.0;
+
+	private final PrintStream out;
+	private final HistogramLogWriter writer;
+
+	/**
+	 * Creates the log file, an existing file is replaced.
+	 *
+	 * @param comment
+	 *            written to the header of the log, e.g. a description of the test case
+	 */
+	public HistogramLog(final Path file, final String comment) throws IOException {
+		super();
+		out = new PrintStream(Files.newOutputStream(file), false, "UTF-8");
+		writer = new HistogramLogWriter(out);
+		final long startTime = System.currentTimeMillis();
+		writer.outputLogFormatVersion();
+		writer.outputComment(comment);
+		writer.outputStartTime(startTime);
+		writer.setBaseTime(startTime);
+		writer.outputLegend();
+	}
+
+	/**
+	 * Writes the latencies of the current interval of the given report.
+	 *
+	 * @param startTime
+	 *            start of the interval in milliseconds since the epoch
+	 * @param endTime
+	 *            end of the interval in milliseconds since the epoch
+	 */
+	public void write(final LatencyReport report, final long startTime, final long endTime) {
+		final String suffix = report.isWarmupInterval() ? WARMUP_TAG_SUFFIX : "";
+		write(report.getType(), suffix, report.getLatencies(), startTime, endTime);
+		for (final Map.Entry<String, LatencyHistograms> operation : report.getOperationLatencies().entrySet()) {
+			write(report.getType() + OPERATION_TAG_SEPARATOR + operation.getKey(), suffix, operation.getValue(),
+				startTime, endTime);
+		}
+	}
+
+	private void write(
+		final String tag,
+		final String suffix,
+		final LatencyHistograms histograms,
+		final long startTime,
+		final long endTime) {
+		write(tag + suffix, histograms.getServiceTimes(), startTime, endTime);
+		if (histograms.getTotalResponseTimes().getTotalCount() > 0) {
+			write(tag + RESPONSE_TIME_TAG_SUFFIX + suffix, histograms.getResponseTimes(), startTime, endTime);
+		}
+		if (histograms.getTotalFailureTimes().getTotalCount() > 0) {
+			write(tag + FAILURE_TAG_SUFFIX + suffix, histograms.getFailureTimes(), startTime, endTime);
+		}
+	}
+
+	private void write(final String tag, final Histogram histogram, final long startTime, final long endTime) {
+		histogram.setTag(tag);
+		final long baseTime = writer.getBaseTime();
+		writer.outputIntervalHistogram((startTime - baseTime) / 1000.0, (endTime - baseTime) / 1000.0, histogram,
+			MAX_VALUE_UNIT_RATIO);
+	}
+
+	@Override
+	public void close() {
+		out.close();
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+
+/**
+ * Merges the interval histograms of one or more logs written by {@link HistogramLog}, e.g. of several runs or of
+ * several clients running at the same time, and prints the exact combined latencies per tag.
+ * <p>
+ * The throughput is the number of requests divided by the time covered by the merged intervals, from the start of
+ * the earliest to the end of the latest one. It is only meaningful for logs of clients running at the same time.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class HistogramLogMerger {
+
+	private static final class Merged {
+		private final Histogram histogram = LatencyRecorder.createHistogram();
+		private long startTime = Long.MAX_VALUE;
+		private long endTime = Long.MIN_VALUE;
+	}
+
+	private final Map<String, Merged> merged;
+
+	public HistogramLogMerger() {
+		super();
+		merged = new TreeMap<>();
+	}
+
+	/**
+	 * Adds all interval histograms of the given log.
+	 */
+	public void add(final File file) throws FileNotFoundException {
+		final HistogramLogReader reader = new HistogramLogReader(file);
+		try {
+			for (EncodableHistogram interval; (interval = reader.nextIntervalHistogram()) != null;) {
+				final Histogram histogram = (Histogram) interval;
+				final Merged m = merged.computeIfAbsent(histogram.getTag() != null ? histogram.getTag() : "",
+					t -> new Merged());
+				m.histogram.add(histogram);
+				m.startTime = Math.min(m.startTime, histogram.getStartTimeStamp());
+				m.endTime = Math.max(m.endTime, histogram.getEndTimeStamp());
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	public void print(final PrintStream out) {
+		merged.forEach((tag, m) -> {
+			final Histogram total = m.histogram;
+			if (total.getTotalCount() == 0) {
+				out.println(String.format("## MERGED \"%s\". no requests", tag));
+				return;
+			}
+			final double elapsedTime = Math.max(m.endTime - m.startTime, 1) / 1000.0;
+			out.println(String.format(
+				"## MERGED \"%s\". %s requests, throughput %.2f, latency (ms) average %s, min %s, max %s, 50th %s, 95th %s, 99th %s, 99.9th %s, 99.99th %s",
+				tag, total.getTotalCount(), total.getTotalCount() / elapsedTime,
+				LatencyHistograms.toMs(total.getMean()), LatencyHistograms.toMs(total.getMinValue()),
+				LatencyHistograms.toMs(total.getMaxValue()),
+				LatencyHistograms.toMs(total.getValueAtPercentile(50.0)),
+				LatencyHistograms.toMs(total.getValueAtPercentile(95.0)),
+				LatencyHistograms.toMs(total.getValueAtPercentile(99.0)),
+				LatencyHistograms.toMs(total.getValueAtPercentile(99.9)),
+				LatencyHistograms.toMs(total.getValueAtPercentile(99.99))));
+		});
+	}
+
+	/**
+	 * Merges the given logs and prints the result to {@link System#out}.
+	 */
+	public static void merge(final Collection<String> files) throws FileNotFoundException {
+		final HistogramLogMerger merger = new HistogramLogMerger();
+		for (final String file : files) {
+			merger.add(new File(file));
+		}
+		merger.print(System.out);
+	}
+
+}
@@ -0,0 +1,231 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The latencies collected from a set of {@link LatencyRecorder}s, for the current output interval and in total, along
+ * with the failed operations per error code, the result sizes and the number of operations in flight at the end of
+ * the interval.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class LatencyHistograms {
+
+	private final Histogram serviceTimes;
+	private final Histogram responseTimes;
+	private final Histogram failureTimes;
+	private final Histogram totalServiceTimes;
+	private final Histogram totalResponseTimes;
+	private final Histogram totalFailureTimes;
+	private final Histogram resultSizes;
+	private final Histogram totalResultSizes;
+	private final Map<String, Long> errorCodes;
+	private final Map<String, Long> totalErrorCodes;
+	private long inFlight;
+
+	public LatencyHistograms() {
+		super();
+		serviceTimes = LatencyRecorder.createHistogram();
+		responseTimes = LatencyRecorder.createHistogram();
+		failureTimes = LatencyRecorder.createHistogram();
+		totalServiceTimes = LatencyRecorder.createHistogram();
+		totalResponseTimes = LatencyRecorder.createHistogram();
+		totalFailureTimes = LatencyRecorder.createHistogram();
+		resultSizes = new Histogram(LatencyRecorder.SIGNIFICANT_DIGITS);
+		totalResultSizes = new Histogram(LatencyRecorder.SIGNIFICANT_DIGITS);
+		errorCodes = new TreeMap<>();
+		totalErrorCodes = new TreeMap<>();
+	}
+
+	/**
+	 * Starts a new interval.
+	 */
+	public void reset() {
+		serviceTimes.reset();
+		responseTimes.reset();
+		failureTimes.reset();
+		resultSizes.reset();
+		errorCodes.clear();
+		inFlight = 0;
+	}
+
+	/**
+	 * Adds the values recorded by the given recorder since the last call to the current interval.
+	 */
+	public void addIntervalOf(final LatencyRecorder recorder) {
+		recorder.addIntervalTo(this);
+	}
+
+	/**
+	 * Adds the current interval of the given histograms to the current interval.
+	 */
+	public void addIntervalOf(final LatencyHistograms histograms) {
+		addInterval(histograms.serviceTimes, histograms.responseTimes, histograms.failureTimes, histograms.errorCodes,
+			histograms.inFlight);
+		addResultSizes(histograms.resultSizes);
+	}
+
+	/**
+	 * Adds the given result sizes to the current interval.
+	 */
+	public void addResultSizes(final Histogram resultSizes) {
+		this.resultSizes.add(resultSizes);
+	}
+
+	/**
+	 * Adds the given values to the current interval.
+	 *
+	 * @param errorCodes
+	 *            number of failed operations per error code
+	 */
+	public void addInterval(
+		final Histogram serviceTimes,
+		final Histogram responseTimes,
+		final Histogram failureTimes,
+		final Map<String, Long> errorCodes,
+		final long inFlight) {
+		this.serviceTimes.add(serviceTimes);
+		this.responseTimes.add(responseTimes);
+		this.failureTimes.add(failureTimes);
+		errorCodes.forEach((errorCode, count) -> this.errorCodes.merge(errorCode, count, Long::sum));
+		this.inFlight += inFlight;
+	}
+
+	/**
+	 * Adds the current interval to the totals.
+	 */
+	public void completeInterval() {
+		totalServiceTimes.add(serviceTimes);
+		totalResponseTimes.add(responseTimes);
+		totalFailureTimes.add(failureTimes);
+		totalResultSizes.add(resultSizes);
+		errorCodes.forEach((errorCode, count) -> totalErrorCodes.merge(errorCode, count, Long::sum));
+	}
+
+	/**
+	 * Resets the totals, e.g. at the end of the warmup.
+	 */
+	public void resetTotals() {
+		totalServiceTimes.reset();
+		totalResponseTimes.reset();
+		totalFailureTimes.reset();
+		totalResultSizes.reset();
+		totalErrorCodes.clear();
+	}
+
+	/**
+	 * @return the latencies of the successful operations of the current interval
+	 */
+	public Histogram getServiceTimes() {
+		return serviceTimes;
+	}
+
+	public Histogram getResponseTimes() {
+		return responseTimes;
+	}
+
+	/**
+	 * @return the latencies of the failed operations of the current interval
+	 */
+	public Histogram getFailureTimes() {
+		return failureTimes;
+	}
+
+	public Histogram getTotalServiceTimes() {
+		return totalServiceTimes;
+	}
+
+	public Histogram getTotalResponseTimes() {
+		return totalResponseTimes;
+	}
+
+	public Histogram getTotalFailureTimes() {
+		return totalFailureTimes;
+	}
+
+	/**
+	 * @return the result sizes of the successful operations, empty for test cases without variable results
+	 */
+	public Histogram getTotalResultSizes() {
+		return totalResultSizes;
+	}
+
+	/**
+	 * @return the number of failed operations per error code of the current interval
+	 */
+	public Map<String, Long> getErrorCodes() {
+		return errorCodes;
+	}
+
+	public Map<String, Long> getTotalErrorCodes() {
+		return totalErrorCodes;
+	}
+
+	/**
+	 * @return the number of operations in flight at the end of the current interval
+	 */
+	public long getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * @return the percentage of failed operations
+	 */
+	public static double errorRate(final Histogram serviceTimes, final Histogram failureTimes) {
+		return errorRate(serviceTimes.getTotalCount(), failureTimes.getTotalCount());
+	}
+
+	/**
+	 * @return the percentage of failed operations
+	 */
+	public static double errorRate(final long requests, final long errors) {
+		final long total = requests + errors;
+		return total > 0 ? Math.round(errors * 10000.0 / total) / 100.0 : 0.0;
+	}
+
+	/**
+	 * @return average, min, max, 50th, 95th and 99th percentile in ms
+	 */
+	public static Double[] latencies(final Histogram histogram) {
+		if (histogram.getTotalCount() == 0) {
+			return new Double[] { 0., 0., 0., 0., 0., 0. };
+		}
+		return new Double[] { toMs(histogram.getMean()), toMs(histogram.getMinValue()),
+				toMs(histogram.getMaxValue()), toMs(histogram.getValueAtPercentile(50.0)),
+				toMs(histogram.getValueAtPercentile(95.0)), toMs(histogram.getValueAtPercentile(99.0)) };
+	}
+
+	/**
+	 * Converts the given nanoseconds to milliseconds, truncated to whole microseconds.
+	 */
+	public static Double toMs(final double nanoSec) {
+		final Double microSec = (double) (long) (nanoSec / 1000);
+		final Double milliSec = microSec / 1000;
+		return milliSec;
+	}
+
+}
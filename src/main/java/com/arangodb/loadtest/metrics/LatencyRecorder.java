@@ -0,0 +1,220 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records operation latencies (in nanoseconds) of a single worker. Recording is wait-free and allocation free, the
+ * reader periodically swaps out the active histograms with {@link #addIntervalTo(LatencyHistograms)}.
+ * <p>
+ * The service time is measured from the actual start of an operation. The response time is measured from the time
+ * the operation was scheduled to start and is only recorded in open-loop mode (option 'rate'). The latencies of failed
+ * operations are recorded separately with {@link #recordFailure(long, String)}, so they don't distort the latencies
+ * of the successful ones, and are counted per error code.
+ * <p>
+ * The recorder also counts the operations in flight, if the test case reports the start and the end of its
+ * operations with {@link #operationStarted()} and {@link #operationFinished()}, and the sizes of the results of
+ * test cases with variable results, like traversals, with {@link #recordResultSize(long)}.
+ * <p>
+ * With option 'hostLatencies' the operations are additionally recorded per host (see {@link #getHostRecorder(String)}),
+ * test cases with several phases per operation can record these separately (see {@link #getPhaseRecorder(String)}).
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class LatencyRecorder {
+
+	public static final long LOWEST_DISCERNIBLE_VALUE = TimeUnit.MICROSECONDS.toNanos(1);
+	public static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+	public static final int SIGNIFICANT_DIGITS = 3;
+
+	/**
+	 * Prefix of the names of the shared recorders of the hosts, followed by host:port.
+	 */
+	public static final String HOST_PREFIX = "host:";
+
+	/**
+	 * Prefix of the names of the shared recorders of the phases of an operation, followed by the name of the phase.
+	 */
+	public static final String PHASE_PREFIX = "phase:";
+
+	private final Recorder serviceTimes;
+	private final Recorder responseTimes;
+	private final Recorder failureTimes;
+	private final Recorder resultSizes;
+	private Histogram serviceTimesInterval;
+	private Histogram responseTimesInterval;
+	private Histogram failureTimesInterval;
+	private Histogram resultSizesInterval;
+	private final LongAdder inFlight;
+	private final Map<String, LongAdder> errorCodes;
+	private final Map<String, Long> reportedErrorCodes;
+	private final String operation;
+	private final Function<String, LatencyRecorder> sharedRecorders;
+	private final boolean hosts;
+	private final Map<String, LatencyRecorder> shared;
+
+	public LatencyRecorder() {
+		this(null, null, false);
+	}
+
+	/**
+	 * @param operation
+	 *            the operation of a test case with several operations (e.g. option 'mix') the recorder records,
+	 *            {@code null} for a test case with a single operation
+	 * @param sharedRecorders
+	 *            returns the recorder with the given name ({@link #HOST_PREFIX} or {@link #PHASE_PREFIX} + name), which
+	 *            is shared by all recorders of a test case. {@code null} if there are no shared recorders.
+	 * @param hosts
+	 *            whether the operations are recorded per host
+	 */
+	public LatencyRecorder(final String operation, final Function<String, LatencyRecorder> sharedRecorders,
+		final boolean hosts) {
+		super();
+		this.operation = operation;
+		this.sharedRecorders = sharedRecorders;
+		this.hosts = hosts && sharedRecorders != null;
+		shared = sharedRecorders != null ? new ConcurrentHashMap<>() : null;
+		serviceTimes = new Recorder(LOWEST_DISCERNIBLE_VALUE, HIGHEST_TRACKABLE_VALUE, SIGNIFICANT_DIGITS);
+		responseTimes = new Recorder(LOWEST_DISCERNIBLE_VALUE, HIGHEST_TRACKABLE_VALUE, SIGNIFICANT_DIGITS);
+		failureTimes = new Recorder(LOWEST_DISCERNIBLE_VALUE, HIGHEST_TRACKABLE_VALUE, SIGNIFICANT_DIGITS);
+		resultSizes = new Recorder(SIGNIFICANT_DIGITS);
+		inFlight = new LongAdder();
+		errorCodes = new ConcurrentHashMap<>();
+		reportedErrorCodes = new HashMap<>();
+	}
+
+	/**
+	 * @return the operation the recorder records, {@code null} for a test case with a single operation
+	 */
+	public String getOperation() {
+		return operation;
+	}
+
+	public static Histogram createHistogram() {
+		return new Histogram(LOWEST_DISCERNIBLE_VALUE, HIGHEST_TRACKABLE_VALUE, SIGNIFICANT_DIGITS);
+	}
+
+	public void record(final long serviceTime) {
+		serviceTimes.recordValue(Math.min(serviceTime, HIGHEST_TRACKABLE_VALUE));
+	}
+
+	public void record(final long serviceTime, final long responseTime) {
+		record(serviceTime);
+		responseTimes.recordValue(Math.min(responseTime, HIGHEST_TRACKABLE_VALUE));
+	}
+
+	/**
+	 * Records the latency of a failed operation.
+	 *
+	 * @param errorCode
+	 *            the error the operation failed with, e.g. HTTP status and ArangoDB error number
+	 */
+	public void recordFailure(final long serviceTime, final String errorCode) {
+		failureTimes.recordValue(Math.min(serviceTime, HIGHEST_TRACKABLE_VALUE));
+		errorCodes.computeIfAbsent(errorCode, c -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Records the size of the result of a successful operation, e.g. the number of vertices of a traversal.
+	 */
+	public void recordResultSize(final long resultSize) {
+		resultSizes.recordValue(resultSize);
+	}
+
+	/**
+	 * @param host
+	 *            the host the operation was sent to, may be {@code null}
+	 * @return the recorder of the given host, {@code null} if the operations are not recorded per host
+	 */
+	public LatencyRecorder getHostRecorder(final String host) {
+		if (!hosts || host == null) {
+			return null;
+		}
+		return shared.computeIfAbsent(HOST_PREFIX + host, sharedRecorders);
+	}
+
+	/**
+	 * @param phase
+	 *            the name of a phase of the operations, e.g. the first batch of a cursor
+	 * @return the recorder of the given phase, {@code null} if there are no shared recorders
+	 */
+	public LatencyRecorder getPhaseRecorder(final String phase) {
+		if (shared == null) {
+			return null;
+		}
+		return shared.computeIfAbsent(PHASE_PREFIX + phase, sharedRecorders);
+	}
+
+	public void operationStarted() {
+		inFlight.increment();
+	}
+
+	public void operationFinished() {
+		inFlight.decrement();
+	}
+
+	public long getInFlight() {
+		return inFlight.sum();
+	}
+
+	/**
+	 * Adds all service times recorded since the last call to the given histogram. Only to be used for recorders which
+	 * never record response times or failures. Must only be called from the collecting thread.
+	 */
+	public void addIntervalTo(final Histogram serviceTimes) {
+		serviceTimesInterval = this.serviceTimes.getIntervalHistogram(serviceTimesInterval);
+		serviceTimes.add(serviceTimesInterval);
+	}
+
+	/**
+	 * Adds all values recorded since the last call to the current interval of the given histograms. Must only be
+	 * called from the collecting thread.
+	 */
+	public void addIntervalTo(final LatencyHistograms histograms) {
+		serviceTimesInterval = serviceTimes.getIntervalHistogram(serviceTimesInterval);
+		responseTimesInterval = responseTimes.getIntervalHistogram(responseTimesInterval);
+		failureTimesInterval = failureTimes.getIntervalHistogram(failureTimesInterval);
+		final Map<String, Long> intervalErrorCodes = new HashMap<>();
+		errorCodes.forEach((errorCode, count) -> {
+			final long total = count.sum();
+			final long interval = total - reportedErrorCodes.getOrDefault(errorCode, 0L);
+			if (interval > 0) {
+				reportedErrorCodes.put(errorCode, total);
+				intervalErrorCodes.put(errorCode, interval);
+			}
+		});
+		histograms.addInterval(serviceTimesInterval, responseTimesInterval, failureTimesInterval, intervalErrorCodes,
+			getInFlight());
+		resultSizesInterval = resultSizes.getIntervalHistogram(resultSizesInterval);
+		histograms.addResultSizes(resultSizesInterval);
+	}
+
+}
@@ -0,0 +1,443 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Prints the CSV line of every output interval and the summary of a test case. The latencies of an interval are
+ * added to the histograms returned by {@link #getLatencies()}, {@link #getOperationLatencies()} and
+ * {@link #getSchedulingDelays()} between {@link #startInterval()} and {@link #completeInterval()}.
+ * <p>
+ * The intervals of the warmup (see {@link Warmup}) are printed like any other interval, but the totals, the summary
+ * and the throughput only contain the intervals after the warmup. The end of the warmup is reported with a summary
+ * of the warmup intervals.
+ * <p>
+ * With option 'hostLatencies' the latencies are additionally reported per host (see {@link #getHostLatencies(String)}).
+ * They are not part of the CSV line, since the hosts are only known once the driver sent requests to them. The same
+ * applies to the latencies of the phases of the operations of some test cases (see
+ * {@link #getPhaseLatencies(String)}).
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class LatencyReport {
+
+	private final String type;
+	private int threads;
+	private final int batchSize;
+	private final int outputInterval;
+	private final boolean openLoop;
+	private final boolean verbose;
+	private final PrintStream out;
+	private final LatencyHistograms latencies;
+	private final Map<String, LatencyHistograms> operationLatencies;
+	private final Map<String, LatencyHistograms> hostLatencies;
+	private final Map<String, LatencyHistograms> phaseLatencies;
+	private final Histogram schedulingDelays;
+	private final Histogram totalSchedulingDelays;
+	private final Warmup warmup;
+	private boolean warmupInterval;
+	private boolean warmingUp;
+	private int numberOfIntervals;
+	private int numberOfWarmupIntervals;
+	private double totalDocuments;
+	private String baseline;
+
+	/**
+	 * @param type
+	 *            name of the test case
+	 * @param threads
+	 *            number of client threads, as printed in the output
+	 * @param operations
+	 *            names of the operations of test case 'mix', otherwise empty
+	 * @param schedulingDelays
+	 *            whether scheduling delays of virtual threads are reported
+	 * @param warmup
+	 *            decides which intervals belong to the warmup
+	 */
+	public LatencyReport(final CliOptions options, final String type, final int threads,
+		final List<String> operations, final boolean schedulingDelays, final Warmup warmup, final PrintStream out) {
+		super();
+		this.type = type;
+		this.threads = threads;
+		this.out = out;
+		batchSize = options.getBatchSize();
+		outputInterval = options.getOutputInterval();
+		openLoop = options.getRate() > 0;
+		verbose = options.getVerbose();
+		latencies = new LatencyHistograms();
+		final Map<String, LatencyHistograms> operationLatencies = new LinkedHashMap<>();
+		operations.forEach(operation -> operationLatencies.put(operation, new LatencyHistograms()));
+		this.operationLatencies = Collections.unmodifiableMap(operationLatencies);
+		hostLatencies = new TreeMap<>();
+		phaseLatencies = new TreeMap<>();
+		this.schedulingDelays = schedulingDelays ? LatencyRecorder.createHistogram() : null;
+		totalSchedulingDelays = schedulingDelays ? LatencyRecorder.createHistogram() : null;
+		this.warmup = warmup;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @param baseline
+	 *            the operation the other operations are compared with in the summary, e.g. the primary index with
+	 *            option 'indexCompare', {@code null} to not compare the operations
+	 */
+	public void setBaseline(final String baseline) {
+		this.baseline = baseline;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of client threads printed from the next interval on, e.g. for the steps of a ramp.
+	 */
+	public void setThreads(final int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * @return the latencies of all operations, for test case 'mix' the latencies of the operations are added on
+	 *         {@link #completeInterval()}
+	 */
+	public LatencyHistograms getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * @return the latencies per operation of test case 'mix', otherwise empty
+	 */
+	public Map<String, LatencyHistograms> getOperationLatencies() {
+		return operationLatencies;
+	}
+
+	/**
+	 * @param host
+	 *            host:port the driver sent the requests to (option 'hostLatencies')
+	 * @return the latencies of the given host. They are not added to {@link #getLatencies()}.
+	 */
+	public LatencyHistograms getHostLatencies(final String host) {
+		return hostLatencies.computeIfAbsent(host, h -> new LatencyHistograms());
+	}
+
+	/**
+	 * @param phase
+	 *            the name of a phase of the operations, e.g. the first batch of a cursor
+	 * @return the latencies of the given phase. They are not added to {@link #getLatencies()}.
+	 */
+	public LatencyHistograms getPhaseLatencies(final String phase) {
+		return phaseLatencies.computeIfAbsent(phase, p -> new LatencyHistograms());
+	}
+
+	/**
+	 * @return the scheduling delays of the current interval or {@code null} if they are not reported
+	 */
+	public Histogram getSchedulingDelays() {
+		return schedulingDelays;
+	}
+
+	/**
+	 * Marks the current interval as part of the warmup, independent of the {@link Warmup} of the report, e.g. because
+	 * an agent was still warming up.
+	 */
+	public void markWarmupInterval() {
+		warmupInterval = true;
+	}
+
+	/**
+	 * @return whether the last completed interval belongs to the warmup
+	 */
+	public boolean isWarmupInterval() {
+		return warmupInterval;
+	}
+
+	public void printHeader() {
+		out.println(
+			"elapsed time (sec),threads,requests,documents,throughput,latency average (ms),latency min (ms),latency max (ms),latency 50th (ms),latency 95th (ms),latency 99th (ms),errors,error rate (%)"
+					+ (openLoop
+							? ",response time average (ms),response time min (ms),response time max (ms),response time 50th (ms),response time 95th (ms),response time 99th (ms)"
+							: "")
+					+ (schedulingDelays != null
+							? ",scheduling delay 50th (ms),scheduling delay 99th (ms),scheduling delay max (ms)"
+							: "")
+					+ operationLatencies.keySet().stream().map(o -> String.format(
+						",%1$s requests,%1$s throughput,%1$s latency average (ms),%1$s latency min (ms),%1$s latency max (ms),%1$s latency 50th (ms),%1$s latency 95th (ms),%1$s latency 99th (ms),%1$s errors",
+						o)).collect(Collectors.joining()));
+	}
+
+	public void startInterval() {
+		warmupInterval = false;
+		latencies.reset();
+		operationLatencies.values().forEach(LatencyHistograms::reset);
+		hostLatencies.values().forEach(LatencyHistograms::reset);
+		phaseLatencies.values().forEach(LatencyHistograms::reset);
+		if (schedulingDelays != null) {
+			schedulingDelays.reset();
+		}
+	}
+
+	/**
+	 * Adds the current interval to the totals and prints its CSV line.
+	 */
+	public void completeInterval() {
+		++numberOfIntervals;
+		operationLatencies.values().forEach(latencies::addIntervalOf);
+		warmupInterval = warmup.completeInterval(latencies.getServiceTimes()) || warmupInterval;
+		if (warmupInterval) {
+			warmingUp = true;
+			++numberOfWarmupIntervals;
+		} else if (warmingUp) {
+			completeWarmup();
+		}
+		operationLatencies.values().forEach(LatencyHistograms::completeInterval);
+		hostLatencies.values().forEach(LatencyHistograms::completeInterval);
+		phaseLatencies.values().forEach(LatencyHistograms::completeInterval);
+		latencies.completeInterval();
+		final Histogram serviceTimes = latencies.getServiceTimes();
+		final long numRequests = serviceTimes.getTotalCount();
+		totalDocuments += numRequests * batchSize;
+		final int elapsedTime = getElapsedTime();
+		final double throughput = totalDocuments / elapsedTime;
+		Stream<Number> d = Stream.of(numberOfIntervals * outputInterval, threads, numRequests,
+			numRequests * batchSize, throughput);
+		d = Stream.concat(d, Stream.of(LatencyHistograms.latencies(serviceTimes)));
+		d = Stream.concat(d, Stream.of(latencies.getFailureTimes().getTotalCount(),
+			LatencyHistograms.errorRate(serviceTimes, latencies.getFailureTimes())));
+		if (openLoop) {
+			d = Stream.concat(d, Stream.of(LatencyHistograms.latencies(latencies.getResponseTimes())));
+		}
+		if (schedulingDelays != null) {
+			totalSchedulingDelays.add(schedulingDelays);
+			d = Stream.concat(d, Stream.of(toMs(schedulingDelays.getValueAtPercentile(50.0)),
+				toMs(schedulingDelays.getValueAtPercentile(99.0)), toMs(schedulingDelays.getMaxValue())));
+		}
+		for (final LatencyHistograms operation : operationLatencies.values()) {
+			d = Stream.concat(d,
+				Stream.of(operation.getServiceTimes().getTotalCount(),
+					(double) operation.getTotalServiceTimes().getTotalCount() * batchSize / elapsedTime));
+			d = Stream.concat(d, Stream.of(LatencyHistograms.latencies(operation.getServiceTimes())));
+			d = Stream.concat(d, Stream.of(operation.getFailureTimes().getTotalCount()));
+		}
+		out.println(d.map(n -> n.toString()).reduce((a, b) -> a + "," + b).get());
+		printDetails();
+	}
+
+	/**
+	 * Prints the latencies per host and per phase of the current interval, if option 'verbose' is set.
+	 */
+	private void printDetails() {
+		if (!verbose) {
+			return;
+		}
+		phaseLatencies.forEach((phase, histograms) -> {
+			final Histogram serviceTimes = histograms.getServiceTimes();
+			out.println(String.format("## PHASE \"%s\". %s requests, latency (ms) 50th %s, 99th %s", phase,
+				serviceTimes.getTotalCount(), toMs(serviceTimes.getValueAtPercentile(50.0)),
+				toMs(serviceTimes.getValueAtPercentile(99.0))));
+		});
+		hostLatencies.forEach((host, histograms) -> {
+			final Histogram serviceTimes = histograms.getServiceTimes();
+			out.println(String.format(
+				"## HOST \"%s\". %s requests, throughput %.2f, latency (ms) 50th %s, 99th %s, %s errors", host,
+				serviceTimes.getTotalCount(), (double) serviceTimes.getTotalCount() * batchSize / outputInterval,
+				toMs(serviceTimes.getValueAtPercentile(50.0)), toMs(serviceTimes.getValueAtPercentile(99.0)),
+				histograms.getFailureTimes().getTotalCount()));
+		});
+	}
+
+	/**
+	 * Prints the summary of the warmup and starts the totals over.
+	 */
+	private void completeWarmup() {
+		printWarmup();
+		warmingUp = false;
+		totalDocuments = 0;
+		latencies.resetTotals();
+		operationLatencies.values().forEach(LatencyHistograms::resetTotals);
+		hostLatencies.values().forEach(LatencyHistograms::resetTotals);
+		phaseLatencies.values().forEach(LatencyHistograms::resetTotals);
+		if (totalSchedulingDelays != null) {
+			totalSchedulingDelays.reset();
+		}
+	}
+
+	private void printWarmup() {
+		if (!verbose) {
+			return;
+		}
+		final Histogram total = latencies.getTotalServiceTimes();
+		final int elapsedTime = getElapsedTime();
+		out.println(String.format(
+			"## WARMUP \"%s\". %s seconds, %s requests, throughput %.2f, latency (ms) 50th %s, 99th %s", type,
+			elapsedTime, total.getTotalCount(), totalDocuments / elapsedTime, toMs(total.getValueAtPercentile(50.0)),
+			toMs(total.getValueAtPercentile(99.0))));
+	}
+
+	/**
+	 * Prints the summary of all completed intervals after the warmup, if option 'verbose' is set.
+	 */
+	public void printSummary() {
+		if (!verbose) {
+			return;
+		}
+		if (warmingUp) {
+			printWarmup();
+			out.println(String.format("## SUMMARY \"%s\". no requests after warmup", type));
+			return;
+		}
+		final int elapsedTime = getElapsedTime();
+		printSummary(type, "latency", latencies.getTotalServiceTimes(), elapsedTime);
+		if (openLoop) {
+			printSummary(type, "response time", latencies.getTotalResponseTimes(), elapsedTime);
+		}
+		printErrors(type, latencies);
+		printResultSizes(type, latencies, elapsedTime);
+		operationLatencies.forEach((operation, histograms) -> {
+			printSummary(operation, "latency", histograms.getTotalServiceTimes(), elapsedTime);
+			if (openLoop) {
+				printSummary(operation, "response time", histograms.getTotalResponseTimes(), elapsedTime);
+			}
+			printErrors(operation, histograms);
+			printResultSizes(operation, histograms, elapsedTime);
+		});
+		printComparison();
+		phaseLatencies.forEach((phase, histograms) -> {
+			final Histogram total = histograms.getTotalServiceTimes();
+			out.println(String.format(
+				"## PHASE \"%s\". %s requests, latency (ms) average %s, min %s, max %s, 50th %s, 95th %s, 99th %s, 99.9th %s",
+				phase, total.getTotalCount(), toMs(total.getMean()), toMs(total.getMinValue()),
+				toMs(total.getMaxValue()), toMs(total.getValueAtPercentile(50.0)),
+				toMs(total.getValueAtPercentile(95.0)), toMs(total.getValueAtPercentile(99.0)),
+				toMs(total.getValueAtPercentile(99.9))));
+		});
+		final long totalRequests = latencies.getTotalServiceTimes().getTotalCount();
+		hostLatencies.forEach((host, histograms) -> {
+			final Histogram total = histograms.getTotalServiceTimes();
+			out.println(String.format(
+				"## HOST \"%s\". %s requests (%.2f%%), throughput %.2f, latency (ms) average %s, 50th %s, 99th %s, 99.9th %s, max %s",
+				host, total.getTotalCount(), totalRequests > 0 ? 100.0 * total.getTotalCount() / totalRequests : 0.0,
+				(double) total.getTotalCount() * batchSize / elapsedTime, toMs(total.getMean()),
+				toMs(total.getValueAtPercentile(50.0)), toMs(total.getValueAtPercentile(99.0)),
+				toMs(total.getValueAtPercentile(99.9)), toMs(total.getMaxValue())));
+			printErrors(host, histograms);
+		});
+		if (schedulingDelays != null) {
+			out.println(String.format("## SCHEDULING DELAY (ms) 50th %s, 99th %s, 99.9th %s, max %s",
+				toMs(totalSchedulingDelays.getValueAtPercentile(50.0)),
+				toMs(totalSchedulingDelays.getValueAtPercentile(99.0)),
+				toMs(totalSchedulingDelays.getValueAtPercentile(99.9)), toMs(totalSchedulingDelays.getMaxValue())));
+		}
+	}
+
+	/**
+	 * @return the number of seconds of the warmup while warming up, otherwise since the end of the warmup
+	 */
+	private int getElapsedTime() {
+		return (warmingUp ? numberOfWarmupIntervals : numberOfIntervals - numberOfWarmupIntervals) * outputInterval;
+	}
+
+	private void printSummary(final String type, final String metric, final Histogram total, final int elapsedTime) {
+		final long numRequests = total.getTotalCount();
+		if (numRequests == 0) {
+			out.println(String.format("## SUMMARY \"%s\". no requests", type));
+			return;
+		}
+		out.println(String.format(
+			"## SUMMARY \"%s\". %s requests, %s documents, throughput %.2f, %s (ms) average %s, min %s, max %s, 50th %s, 95th %s, 99th %s, 99.9th %s",
+			type, numRequests, numRequests * batchSize, (double) numRequests * batchSize / elapsedTime, metric,
+			toMs(total.getMean()), toMs(total.getMinValue()), toMs(total.getMaxValue()),
+			toMs(total.getValueAtPercentile(50.0)), toMs(total.getValueAtPercentile(95.0)),
+			toMs(total.getValueAtPercentile(99.0)), toMs(total.getValueAtPercentile(99.9))));
+	}
+
+	/**
+	 * Prints the latencies of every operation relative to the ones of the baseline operation. The operations are
+	 * picked with fixed weights, so their throughput is not compared.
+	 */
+	private void printComparison() {
+		final LatencyHistograms base = baseline != null ? operationLatencies.get(baseline) : null;
+		if (base == null || base.getTotalServiceTimes().getTotalCount() == 0) {
+			return;
+		}
+		final Histogram baseTotal = base.getTotalServiceTimes();
+		operationLatencies.forEach((operation, histograms) -> {
+			final Histogram total = histograms.getTotalServiceTimes();
+			if (operation.equals(baseline) || total.getTotalCount() == 0) {
+				return;
+			}
+			out.println(String.format(
+				"## COMPARISON \"%s\" / \"%s\". latency average %.2f, 50th %.2f, 99th %.2f, 99.9th %.2f",
+				operation, baseline, total.getMean() / baseTotal.getMean(),
+				ratio(total, baseTotal, 50.0), ratio(total, baseTotal, 99.0), ratio(total, baseTotal, 99.9)));
+		});
+	}
+
+	private static double ratio(final Histogram histogram, final Histogram baseline, final double percentile) {
+		return (double) histogram.getValueAtPercentile(percentile) / baseline.getValueAtPercentile(percentile);
+	}
+
+	private void printErrors(final String type, final LatencyHistograms histograms) {
+		final Histogram total = histograms.getTotalFailureTimes();
+		final long numErrors = total.getTotalCount();
+		if (numErrors == 0) {
+			return;
+		}
+		out.println(String.format(
+			"## ERRORS \"%s\". %s errors (%s%%), latency (ms) average %s, min %s, max %s, 50th %s, 99th %s, by code %s",
+			type, numErrors, LatencyHistograms.errorRate(histograms.getTotalServiceTimes(), total),
+			toMs(total.getMean()), toMs(total.getMinValue()), toMs(total.getMaxValue()),
+			toMs(total.getValueAtPercentile(50.0)), toMs(total.getValueAtPercentile(99.0)),
+			histograms.getTotalErrorCodes().entrySet().stream().map(e -> e.getKey() + " x" + e.getValue())
+					.collect(Collectors.joining(", "))));
+	}
+
+	private void printResultSizes(final String type, final LatencyHistograms histograms, final int elapsedTime) {
+		final Histogram total = histograms.getTotalResultSizes();
+		if (total.getTotalCount() == 0) {
+			return;
+		}
+		out.println(String.format(
+			"## RESULT SIZE \"%s\". average %.2f, min %s, max %s, 50th %s, 99th %s, %.2f per second", type,
+			total.getMean(), total.getMinValue(), total.getMaxValue(), total.getValueAtPercentile(50.0),
+			total.getValueAtPercentile(99.0), total.getMean() * total.getTotalCount() / elapsedTime));
+	}
+
+	private static Double toMs(final double nanoSec) {
+		return LatencyHistograms.toMs(nanoSec);
+	}
+
+}
@@ -0,0 +1,320 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.io.PrintStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Load of a test case which changes in steps while the test case runs: the number of threads or, with option 'rate',
+ * the target rate. Every step is held for option 'rampStep' seconds (rounded to output intervals), then the
+ * subclass decides about the next step from the measured {@link Step}. With target rates the latency of a step is the
+ * response time, since the service time does not include the time an operation waits for its start. The first
+ * interval of a step of several intervals is not measured: the operations still in flight from the previous step and
+ * new connections of added threads would otherwise be attributed to the new step.
+ * <p>
+ * The steps start after the warmup (option 'warmup') and are advanced by the collecting thread with
+ * {@link #completeInterval(LatencyReport, PrintStream)}, the workers only read the current load. Every step is
+ * published as a {@link Current} with its start time, to which the workers anchor the schedule of a target rate.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public abstract class LoadSteps {
+
+	/**
+	 * Result of a completed step.
+	 */
+	protected static class Step {
+		protected final int load;
+		protected final long requests;
+		protected final long errors;
+		protected final double throughput;
+		protected final Histogram latencies;
+
+		private Step(final int load, final long requests, final long errors, final double throughput,
+			final Histogram latencies) {
+			super();
+			this.load = load;
+			this.requests = requests;
+			this.errors = errors;
+			this.throughput = throughput;
+			this.latencies = latencies;
+		}
+
+		protected double getLatency(final double percentile) {
+			return LatencyHistograms.toMs(latencies.getValueAtPercentile(percentile));
+		}
+	}
+
+	/**
+	 * A started step: its number, its load and the time it started. The steps are linked, so that a worker which fell
+	 * behind can catch up on the operations of every step it missed.
+	 */
+	public static final class Current {
+		private final int number;
+		private final int load;
+		private final long startTime;
+		private volatile Current next;
+
+		private Current(final int number, final int load, final long startTime) {
+			super();
+			this.number = number;
+			this.load = load;
+			this.startTime = startTime;
+		}
+
+		/**
+		 * @return the number of the step, starting with 0
+		 */
+		public int getNumber() {
+			return number;
+		}
+
+		/**
+		 * @return the number of threads or the target rate of the step
+		 */
+		public int getLoad() {
+			return load;
+		}
+
+		/**
+		 * @return the time (as of {@link System#nanoTime()}) the step started
+		 */
+		public long getStartTime() {
+			return startTime;
+		}
+
+		/**
+		 * @return the step started after this one, {@code null} as long as this step is the current one
+		 */
+		public Current getNext() {
+			return next;
+		}
+	}
+
+	protected final boolean rates;
+	protected final boolean verbose;
+	private final int intervalsPerStep;
+	private final int settleIntervals;
+	private final int outputInterval;
+	private final int batchSize;
+	private final Histogram latencies;
+	private final Histogram failureTimes;
+	private final Set<Thread> parked;
+	private long requests;
+	private int intervals;
+	private int step;
+	private volatile Current current;
+	private volatile boolean finished;
+
+	/**
+	 * @param load
+	 *            the number of threads or the target rate of the first step
+	 */
+	protected LoadSteps(final CliOptions options, final int load) {
+		super();
+		current = new Current(0, load, System.nanoTime());
+		parked = ConcurrentHashMap.newKeySet();
+		rates = options.getRate() > 0;
+		verbose = options.getVerbose();
+		outputInterval = options.getOutputInterval();
+		intervalsPerStep = Math.max(1, options.getRampStep() / outputInterval);
+		settleIntervals = intervalsPerStep > 1 ? 1 : 0;
+		batchSize = options.getBatchSize();
+		latencies = LatencyRecorder.createHistogram();
+		failureTimes = LatencyRecorder.createHistogram();
+	}
+
+	/**
+	 * @return the load steps configured by option 'ramp' or 'sloLatency', {@code null} if neither is set
+	 * @throws IllegalArgumentException
+	 *             if the options are invalid
+	 */
+	public static LoadSteps create(final CliOptions options) {
+		final boolean ramp = options.getRamp() != null && !options.getRamp().isEmpty();
+		final boolean slo = options.getSloLatency() > 0;
+		if (ramp && slo) {
+			throw new IllegalArgumentException("Option 'ramp' does not support option 'sloLatency'");
+		}
+		return ramp ? Ramp.fromOptions(options) : slo ? SloSearch.fromOptions(options) : null;
+	}
+
+	/**
+	 * @return whether the steps are target rates (option 'rate'), otherwise they are thread counts
+	 */
+	public boolean isRates() {
+		return rates;
+	}
+
+	/**
+	 * @return the number of threads of the current step, without effect if the steps are rates
+	 */
+	public int getThreads() {
+		return current.load;
+	}
+
+	/**
+	 * @return the highest number of threads of all steps, without effect if the steps are rates
+	 */
+	public int getMaxThreads() {
+		return current.load;
+	}
+
+	/**
+	 * @return the target rate of the current step, without effect if the steps are thread counts
+	 */
+	public int getRate() {
+		return current.load;
+	}
+
+	/**
+	 * @return the current step
+	 */
+	public Current getCurrent() {
+		return current;
+	}
+
+	/**
+	 * Restarts the first step, to be called right before the workers start.
+	 */
+	public void start() {
+		current = new Current(0, current.load, System.nanoTime());
+	}
+
+	/**
+	 * Parks the calling worker until the given time, unless the given step is over or the last step is completed
+	 * before.
+	 *
+	 * @return whether the given time was reached
+	 */
+	public boolean parkUntil(final long time, final Current step) {
+		final Thread thread = Thread.currentThread();
+		parked.add(thread);
+		try {
+			for (long remaining; (remaining = time - System.nanoTime()) > 0;) {
+				if (step.next != null || finished) {
+					return false;
+				}
+				LockSupport.parkNanos(this, remaining);
+			}
+			return true;
+		} finally {
+			parked.remove(thread);
+		}
+	}
+
+	/**
+	 * @return whether the last step is completed, the workers stop
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Adds the completed interval of the given report to the current step. Must only be called from the collecting
+	 * thread.
+	 *
+	 * @return whether the next step started
+	 */
+	public boolean completeInterval(final LatencyReport report, final PrintStream out) {
+		if (finished || report.isWarmupInterval()) {
+			return false;
+		}
+		if (++intervals > settleIntervals) {
+			final LatencyHistograms histograms = report.getLatencies();
+			latencies.add(rates ? histograms.getResponseTimes() : histograms.getServiceTimes());
+			requests += histograms.getServiceTimes().getTotalCount();
+			failureTimes.add(histograms.getFailureTimes());
+		}
+		if (intervals < intervalsPerStep) {
+			return false;
+		}
+		final Step completed = new Step(current.load, requests, failureTimes.getTotalCount(),
+				(double) requests * batchSize / ((intervals - settleIntervals) * outputInterval), latencies.copy());
+		if (verbose) {
+			out.println(String.format(
+				"## STEP %s \"%s\". %s, %s requests, throughput %.2f, %s (ms) 50th %s, 99th %s, error rate %s%%",
+				++step, report.getType(), load(completed.load), completed.requests, completed.throughput, metric(),
+				completed.getLatency(50.0), completed.getLatency(99.0),
+				LatencyHistograms.errorRate(completed.requests, completed.errors)));
+		}
+		latencies.reset();
+		failureTimes.reset();
+		requests = 0;
+		intervals = 0;
+		final Integer next = completeStep(completed);
+		if (next == null) {
+			finish();
+			return false;
+		}
+		startStep(next);
+		return true;
+	}
+
+	/**
+	 * Starts the next step with the given load and wakes up the parked workers, so that they switch to the schedule of
+	 * the new step.
+	 */
+	protected void startStep(final int load) {
+		final Current started = new Current(current.number + 1, load, System.nanoTime());
+		current.next = started;
+		current = started;
+		unparkWorkers();
+	}
+
+	/**
+	 * Completes the last step and wakes up the parked workers, so that they stop.
+	 */
+	protected void finish() {
+		finished = true;
+		unparkWorkers();
+	}
+
+	private void unparkWorkers() {
+		parked.forEach(LockSupport::unpark);
+	}
+
+	/**
+	 * @return the load of the next step or {@code null} if the given step was the last one
+	 */
+	protected abstract Integer completeStep(Step step);
+
+	/**
+	 * Prints the result of the completed steps, if option 'verbose' is set.
+	 */
+	public abstract void printSummary(String type, PrintStream out);
+
+	protected String metric() {
+		return rates ? "response time" : "latency";
+	}
+
+	protected String load(final int load) {
+		return rates ? "rate " + load : load + " threads";
+	}
+
+}
@@ -0,0 +1,237 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+
+import com.arangodb.loadtest.cli.CliOptions;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the current state of the test cases in the OpenMetrics text format (path {@value #PATH}, option
+ * 'metricsPort'). The state is updated by the collecting thread at the end of every output interval with
+ * {@link #update(LatencyReport, int)}, the workers are not involved in a scrape.
+ * <p>
+ * The series are labeled with the test case, the run and, for test case 'mix', the operation. Throughput, operations
+ * in flight and the latency quantiles are those of the last output interval, the counters are totals.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class MetricsServer implements HttpHandler, Closeable {
+
+	public static final String PATH = "/metrics";
+	private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+	private static final String PREFIX = "loadtest_";
+	private static final double[] QUANTILES = { 0.5, 0.95, 0.99, 0.999 };
+
+	/**
+	 * State of a test case or operation at the end of an output interval.
+	 */
+	private static class Series {
+		private final String labels;
+		private final long requests;
+		private final long documents;
+		private final Map<String, Long> errorCodes;
+		private final double throughput;
+		private final long inFlight;
+		private final Latencies serviceTimes;
+		private final Latencies responseTimes;
+
+		private Series(final String labels, final LatencyHistograms histograms, final int batchSize,
+			final int outputInterval, final boolean openLoop) {
+			super();
+			this.labels = labels;
+			requests = histograms.getTotalServiceTimes().getTotalCount();
+			documents = requests * batchSize;
+			errorCodes = new TreeMap<>(histograms.getTotalErrorCodes());
+			throughput = (double) histograms.getServiceTimes().getTotalCount() * batchSize / outputInterval;
+			inFlight = histograms.getInFlight();
+			serviceTimes = new Latencies(histograms.getServiceTimes(), histograms.getTotalServiceTimes());
+			responseTimes = openLoop
+					? new Latencies(histograms.getResponseTimes(), histograms.getTotalResponseTimes())
+					: null;
+		}
+	}
+
+	/**
+	 * Quantiles of an interval and count and sum of all intervals, in seconds.
+	 */
+	private static class Latencies {
+		private final double[] quantiles;
+		private final long count;
+		private final double sum;
+
+		private Latencies(final Histogram interval, final Histogram total) {
+			super();
+			quantiles = new double[QUANTILES.length];
+			for (int i = 0; i < QUANTILES.length; i++) {
+				quantiles[i] = interval.getTotalCount() > 0
+						? toSeconds(interval.getValueAtPercentile(QUANTILES[i] * 100))
+						: Double.NaN;
+			}
+			count = total.getTotalCount();
+			sum = toSeconds(total.getMean() * count);
+		}
+	}
+
+	private final HttpServer server;
+	private final int batchSize;
+	private final int outputInterval;
+	private final boolean openLoop;
+	private volatile Map<String, Series> series;
+
+	public MetricsServer(final CliOptions options) throws IOException {
+		super();
+		batchSize = options.getBatchSize();
+		outputInterval = options.getOutputInterval();
+		openLoop = options.getRate() > 0;
+		series = Collections.emptyMap();
+		server = HttpServer.create(new InetSocketAddress(options.getMetricsPort()), 0);
+		server.createContext(PATH, this);
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Publishes the state of the given report after {@link LatencyReport#completeInterval()}. Must only be called from
+	 * the collecting thread.
+	 */
+	public void update(final LatencyReport report, final int run) {
+		final Map<String, Series> updated = new LinkedHashMap<>(series);
+		final String labels = String.format("test=\"%s\",run=\"%s\"", report.getType(), run + 1);
+		updated.put(labels, new Series(labels, report.getLatencies(), batchSize, outputInterval, openLoop));
+		report.getOperationLatencies().forEach((operation, histograms) -> {
+			final String operationLabels = String.format("%s,operation=\"%s\"", labels, operation);
+			updated.put(operationLabels, new Series(operationLabels, histograms, batchSize, outputInterval, openLoop));
+		});
+		series = Collections.unmodifiableMap(updated);
+	}
+
+	@Override
+	public void handle(final HttpExchange exchange) throws IOException {
+		final byte[] body = render(series.values()).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static String render(final Collection<Series> series) {
+		final StringBuilder out = new StringBuilder();
+		counter(out, "requests", "completed operations", series, s -> s.requests);
+		counter(out, "documents", "documents of the completed operations", series, s -> s.documents);
+		header(out, "errors", "counter", "failed operations per HTTP status and ArangoDB error number");
+		series.forEach(s -> s.errorCodes.forEach((errorCode, count) -> {
+			final String[] code = errorCode.split("/", 2);
+			sample(out, "errors_total",
+				String.format("%s,code=\"%s\",error_num=\"%s\"", s.labels, code[0], code[1]), count);
+		}));
+		gauge(out, "throughput", "documents per second in the last output interval", series, s -> s.throughput);
+		gauge(out, "in_flight", "operations in flight at the end of the last output interval", series,
+			s -> s.inFlight);
+		summary(out, "latency_seconds", "latency of the last output interval", series, s -> s.serviceTimes);
+		if (series.stream().anyMatch(s -> s.responseTimes != null)) {
+			summary(out, "response_time_seconds", "response time of the last output interval", series,
+				s -> s.responseTimes);
+		}
+		out.append("# EOF\n");
+		return out.toString();
+	}
+
+	private static void counter(
+		final StringBuilder out,
+		final String name,
+		final String help,
+		final Collection<Series> series,
+		final Function<Series, Number> value) {
+		header(out, name, "counter", help);
+		series.forEach(s -> sample(out, name + "_total", s.labels, value.apply(s)));
+	}
+
+	private static void gauge(
+		final StringBuilder out,
+		final String name,
+		final String help,
+		final Collection<Series> series,
+		final Function<Series, Number> value) {
+		header(out, name, "gauge", help);
+		series.forEach(s -> sample(out, name, s.labels, value.apply(s)));
+	}
+
+	private static void summary(
+		final StringBuilder out,
+		final String name,
+		final String help,
+		final Collection<Series> series,
+		final Function<Series, Latencies> value) {
+		header(out, name, "summary", help);
+		out.append("# UNIT ").append(PREFIX).append(name).append(" seconds\n");
+		for (final Series s : series) {
+			final Latencies latencies = value.apply(s);
+			for (int i = 0; i < QUANTILES.length; i++) {
+				sample(out, name, s.labels + ",quantile=\"" + QUANTILES[i] + "\"", latencies.quantiles[i]);
+			}
+			sample(out, name + "_count", s.labels, latencies.count);
+			sample(out, name + "_sum", s.labels, latencies.sum);
+		}
+	}
+
+	private static void header(final StringBuilder out, final String name, final String type, final String help) {
+		out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+		out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+	}
+
+	private static void sample(final StringBuilder out, final String name, final String labels, final Number value) {
+		out.append(PREFIX).append(name).append('{').append(labels).append("} ").append(value).append('\n');
+	}
+
+	private static double toSeconds(final double nanoSec) {
+		return nanoSec / 1e9;
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Step-load ramp of a test case (option 'ramp'). Instead of a fixed load the test case steps through a list of thread
+ * counts or, with option 'rate', target rates within one run. The end of the ramp is reported with the knee: the last
+ * step before the latency grows faster than the throughput, i.e. beyond which additional load mostly ends up in
+ * queues.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class Ramp extends LoadSteps {
+
+	private final List<Integer> loads;
+	private final List<Step> completedSteps;
+
+	private Ramp(final CliOptions options, final List<Integer> loads) {
+		super(options, loads.get(0));
+		this.loads = loads;
+		completedSteps = new ArrayList<>();
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the option 'ramp' is invalid
+	 */
+	static Ramp fromOptions(final CliOptions options) {
+		final Collection<Integer> loads = options.getRamp();
+		if (loads.stream().anyMatch(load -> load <= 0)) {
+			throw new IllegalArgumentException("Option 'ramp' requires positive steps");
+		}
+		final List<Integer> sorted = loads.stream().sorted().collect(Collectors.toList());
+		if (options.getRate() == 0 && !sorted.equals(new ArrayList<>(loads))) {
+			throw new IllegalArgumentException("Option 'ramp' requires ascending thread counts");
+		}
+		return new Ramp(options, new ArrayList<>(loads));
+	}
+
+	@Override
+	public int getMaxThreads() {
+		return loads.get(loads.size() - 1);
+	}
+
+	@Override
+	protected Integer completeStep(final Step step) {
+		completedSteps.add(step);
+		return completedSteps.size() < loads.size() ? loads.get(completedSteps.size()) : null;
+	}
+
+	/**
+	 * Prints the knee of the completed steps, if option 'verbose' is set.
+	 */
+	@Override
+	public void printSummary(final String type, final PrintStream out) {
+		if (!verbose || completedSteps.isEmpty()) {
+			return;
+		}
+		for (int i = 1; i < completedSteps.size(); i++) {
+			final Step previous = completedSteps.get(i - 1);
+			final Step current = completedSteps.get(i);
+			final double previousLatency = previous.getLatency(50.0);
+			if (previous.throughput > 0 && previousLatency > 0
+					&& current.getLatency(50.0) / previousLatency > current.throughput / previous.throughput) {
+				out.println(String.format(
+					"## KNEE \"%s\". step %s, %s, throughput %.2f, %s (ms) 50th %s, 99th %s. %s grows faster than throughput beyond",
+					type, i, load(previous.load), previous.throughput, metric(), previousLatency,
+					previous.getLatency(99.0), metric()));
+				return;
+			}
+		}
+		out.println(String.format("## KNEE \"%s\". not reached, throughput still scales at %s", type,
+			load(completedSteps.get(completedSteps.size() - 1).load)));
+	}
+
+}
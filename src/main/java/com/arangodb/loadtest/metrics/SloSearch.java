@@ -0,0 +1,134 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Search for the maximum sustainable rate of a test case under a latency SLO (options 'sloLatency' and
+ * 'sloPercentile'). The operations are issued on an open-loop rate, starting with option 'rate'. A step meets the SLO
+ * if the response time at the percentile is at most the SLO latency and no operation failed. The rate doubles while
+ * the SLO is met and halves while it is violated, until the maximum lies between a met and a violated rate. Then the
+ * search bisects until the distance is at most {@value #PRECISION} of the met rate or {@value #MAX_STEPS} steps are
+ * done.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class SloSearch extends LoadSteps {
+
+	public static final double PRECISION = 0.05;
+	public static final int MAX_STEPS = 20;
+
+	private final double percentile;
+	private final double latency;
+	private final List<Step> completedSteps;
+	private final List<Boolean> met;
+	private Step best;
+	private int lower;
+	private int upper;
+
+	private SloSearch(final CliOptions options) {
+		super(options, options.getRate());
+		percentile = options.getSloPercentile();
+		latency = options.getSloLatency();
+		completedSteps = new ArrayList<>();
+		met = new ArrayList<>();
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the options are invalid
+	 */
+	static SloSearch fromOptions(final CliOptions options) {
+		if (options.getRate() <= 0) {
+			throw new IllegalArgumentException("Option 'sloLatency' requires option 'rate' as the first rate to try");
+		}
+		if (options.getSloPercentile() <= 0 || options.getSloPercentile() > 100) {
+			throw new IllegalArgumentException("Option 'sloPercentile' has to be between 0 (exclusive) and 100");
+		}
+		return new SloSearch(options);
+	}
+
+	@Override
+	protected Integer completeStep(final Step step) {
+		final boolean ok = step.requests > 0 && step.errors == 0 && step.getLatency(percentile) <= latency;
+		completedSteps.add(step);
+		met.add(ok);
+		if (ok && step.load > lower) {
+			lower = step.load;
+			best = step;
+		} else if (!ok && (upper == 0 || step.load < upper)) {
+			upper = step.load;
+		}
+		if (completedSteps.size() >= MAX_STEPS) {
+			return null;
+		}
+		if (upper == 0) {
+			return lower <= Integer.MAX_VALUE / 2 ? lower * 2 : null;
+		}
+		if (lower == 0) {
+			return upper > 1 ? upper / 2 : null;
+		}
+		if (upper - lower <= Math.max(1, lower * PRECISION)) {
+			return null;
+		}
+		return lower + (upper - lower) / 2;
+	}
+
+	/**
+	 * Prints the maximum rate which met the SLO and all tried rates, if option 'verbose' is set.
+	 */
+	@Override
+	public void printSummary(final String type, final PrintStream out) {
+		if (!verbose || completedSteps.isEmpty()) {
+			return;
+		}
+		final String slo = String.format("%s response time <= %s ms", percentile(percentile), latency);
+		final String result;
+		if (best == null) {
+			result = "not met at any rate";
+		} else {
+			result = String.format("up to %srate %s (throughput %.2f, %s %s ms)", upper == 0 ? "at least " : "",
+				best.load, best.throughput, percentile(percentile), best.getLatency(percentile));
+		}
+		final String trace = IntStream.range(0, completedSteps.size())
+				.mapToObj(i -> String.format("%s %s ms %s", completedSteps.get(i).load,
+					completedSteps.get(i).getLatency(percentile), met.get(i) ? "met" : "violated"))
+				.collect(Collectors.joining(", "));
+		out.println(String.format("## SLO \"%s\". %s %s. rates: %s", type, slo, result, trace));
+	}
+
+	/**
+	 * @return the name of the given percentile, e.g. "99th" or "99.9th"
+	 */
+	public static String percentile(final double percentile) {
+		return (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile))
+				+ "th";
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.HdrHistogram.Histogram;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * The warmup phase of a test case (option 'warmup'). The first output intervals of a test case include JIT
+ * compilation, connection setup and the warming of the server caches. They are reported as warmup intervals and
+ * excluded from the totals of the test case. The workers keep running until the warmup is done, the options
+ * 'requests' and 'duration' only apply to the operations after the warmup.
+ * <p>
+ * The warmup lasts a number of seconds (e.g. "30s"), a number of operations of all threads (e.g. "10000") or, with
+ * "auto", until the throughput and the 50th percentile latency are stable. They are stable if their coefficient of
+ * variation over the last {@value #AUTO_WINDOW} intervals is at most {@value #AUTO_MAX_VARIATION}. An automatic warmup
+ * ends after at most {@value #AUTO_MAX_SECONDS} seconds.
+ * <p>
+ * The warmup is advanced by the collecting thread with {@link #completeInterval(Histogram)}, the workers only read
+ * its state.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class Warmup {
+
+	public static final int AUTO_WINDOW = 5;
+	public static final double AUTO_MAX_VARIATION = 0.05;
+	public static final int AUTO_MAX_SECONDS = 120;
+	private static final String AUTO = "auto";
+	private static final String SECONDS_SUFFIX = "s";
+
+	/**
+	 * No warmup, e.g. for reports whose warmup intervals are marked by the agents.
+	 */
+	public static final Warmup NONE = new Warmup(0, 0, false, 1);
+
+	private final long seconds;
+	private final long operations;
+	private final boolean auto;
+	private final int outputInterval;
+	private final Deque<double[]> window;
+	private long elapsedSeconds;
+	private long completedOperations;
+	private volatile boolean done;
+	private volatile long endTime;
+
+	private Warmup(final long seconds, final long operations, final boolean auto, final int outputInterval) {
+		super();
+		this.seconds = seconds;
+		this.operations = operations;
+		this.auto = auto;
+		this.outputInterval = outputInterval;
+		window = new ArrayDeque<>();
+		done = !isEnabled();
+	}
+
+	/**
+	 * @return a new warmup as configured by option 'warmup'
+	 * @throws IllegalArgumentException
+	 *             if the option 'warmup' is invalid
+	 */
+	public static Warmup create(final CliOptions options) {
+		final String warmup = options.getWarmup().trim();
+		final int outputInterval = options.getOutputInterval();
+		if (AUTO.equalsIgnoreCase(warmup)) {
+			return new Warmup(0, 0, true, outputInterval);
+		}
+		try {
+			if (warmup.endsWith(SECONDS_SUFFIX)) {
+				final long seconds = Long.parseLong(warmup.substring(0, warmup.length() - SECONDS_SUFFIX.length()));
+				if (seconds >= 0) {
+					return new Warmup(seconds, 0, false, outputInterval);
+				}
+			} else {
+				final long operations = Long.parseLong(warmup);
+				if (operations >= 0) {
+					return new Warmup(0, operations, false, outputInterval);
+				}
+			}
+		} catch (final NumberFormatException e) {
+		}
+		throw new IllegalArgumentException(String
+				.format("Invalid option 'warmup' \"%s\", expected <seconds>s, <operations> or auto", warmup));
+	}
+
+	public boolean isEnabled() {
+		return seconds > 0 || operations > 0 || auto;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * @return the time (as of {@link System#nanoTime()}) the warmup ended, only valid if the warmup is enabled and
+	 *         done
+	 */
+	public long getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * Adds an output interval to the warmup. Must only be called from the collecting thread.
+	 *
+	 * @param serviceTimes
+	 *            the latencies of all operations of the interval
+	 * @return whether the interval belongs to the warmup
+	 */
+	public boolean completeInterval(final Histogram serviceTimes) {
+		if (done) {
+			return false;
+		}
+		elapsedSeconds += outputInterval;
+		completedOperations += serviceTimes.getTotalCount();
+		if (auto) {
+			window.addLast(new double[] { serviceTimes.getTotalCount(), serviceTimes.getValueAtPercentile(50.0) });
+			if (window.size() > AUTO_WINDOW) {
+				window.removeFirst();
+			}
+		}
+		if (elapsedSeconds >= seconds && completedOperations >= operations
+				&& (!auto || isStable() || elapsedSeconds >= AUTO_MAX_SECONDS)) {
+			endTime = System.nanoTime();
+			done = true;
+		}
+		return true;
+	}
+
+	private boolean isStable() {
+		return window.size() == AUTO_WINDOW && variation(0) <= AUTO_MAX_VARIATION
+				&& variation(1) <= AUTO_MAX_VARIATION;
+	}
+
+	/**
+	 * @return the coefficient of variation of the given value of the intervals in the window
+	 */
+	private double variation(final int value) {
+		final double mean = window.stream().mapToDouble(v -> v[value]).average().orElse(0);
+		if (mean <= 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		final double variance = window.stream().mapToDouble(v -> (v[value] - mean) * (v[value] - mean)).average()
+				.orElse(0);
+		return Math.sqrt(variance) / mean;
+	}
+
+}
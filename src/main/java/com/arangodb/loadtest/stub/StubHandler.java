@@ -0,0 +1,321 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.stub;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.arangodb.velocypack.VPackBuilder;
+import com.arangodb.velocypack.VPackSlice;
+import com.arangodb.velocypack.ValueType;
+import com.arangodb.velocystream.RequestType;
+
+/**
+ * Answers the requests of the test cases with canned responses, independent of the transport (see
+ * {@link StubHttpServer} and {@link StubVstServer}). Documents are not stored, a read returns a document which
+ * consists of its meta data only. Requests to unknown endpoints are answered with an empty result.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class StubHandler {
+
+	public static class Response {
+
+		private final int code;
+		private final VPackSlice body;
+
+		public Response(final int code, final VPackSlice body) {
+			super();
+			this.code = code;
+			this.body = body;
+		}
+
+		public int getCode() {
+			return code;
+		}
+
+		public VPackSlice getBody() {
+			return body;
+		}
+
+	}
+
+	private static final String REV = "_stub";
+
+	private final AtomicLong keys;
+
+	public StubHandler() {
+		super();
+		keys = new AtomicLong();
+	}
+
+	/**
+	 * @param path
+	 *            request path without database prefix, e.g. /_api/document/collection/key
+	 * @param body
+	 *            request body, null if the request has none
+	 */
+	public Response handle(
+		final String database,
+		final RequestType type,
+		final String path,
+		final Map<String, String> parameters,
+		final VPackSlice body) {
+		final String[] p = path.split("/");
+		if (p.length < 3 || !"_api".equals(p[1])) {
+			return empty(404);
+		}
+		switch (p[2]) {
+		case "version":
+			return version();
+		case "document":
+			return document(type, p, parameters, body);
+		case "gharial":
+			return graph(type, p, body);
+		case "cursor":
+			return cursor(body);
+		case "import":
+			return importDocuments(body);
+		case "database":
+			return database(database);
+		case "collection":
+			return collection(p);
+		case "index":
+			return index(parameters, body);
+		default:
+			return empty(200);
+		}
+	}
+
+	private Response version() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("server", "arango");
+		builder.add("version", "3.4.0");
+		builder.add("license", "community");
+		builder.close();
+		return new Response(200, builder.slice());
+	}
+
+	/**
+	 * /_api/document/{collection}[/{key}]
+	 */
+	private Response document(
+		final RequestType type,
+		final String[] path,
+		final Map<String, String> parameters,
+		final VPackSlice body) {
+		final String collection = path.length > 3 ? path[3] : "";
+		final VPackBuilder builder = new VPackBuilder();
+		if (path.length > 4) {
+			meta(builder, null, collection, path[4], type != RequestType.GET && type != RequestType.HEAD);
+			return new Response(type == RequestType.POST ? 202 : 200, builder.slice());
+		}
+		if (body == null) {
+			return empty(400);
+		}
+		final boolean oldRev = type != RequestType.POST && !"true".equals(parameters.get("onlyget"));
+		if (body.isArray()) {
+			builder.add(ValueType.ARRAY);
+			for (final Iterator<VPackSlice> iterator = body.arrayIterator(); iterator.hasNext();) {
+				meta(builder, null, collection, keyOf(iterator.next()), oldRev);
+			}
+			builder.close();
+		} else {
+			meta(builder, null, collection, keyOf(body), oldRev);
+		}
+		return new Response(type == RequestType.POST ? 202 : 200, builder.slice());
+	}
+
+	/**
+	 * /_api/gharial/{graph}/vertex|edge/{collection}[/{key}]
+	 */
+	private Response graph(final RequestType type, final String[] path, final VPackSlice body) {
+		final VPackBuilder builder = new VPackBuilder();
+		if (path.length < 6) {
+			builder.add(ValueType.OBJECT);
+			builder.add("graph", ValueType.OBJECT);
+			builder.add("name", path.length > 3 ? path[3] : "");
+			builder.add("edgeDefinitions", ValueType.ARRAY);
+			builder.close();
+			builder.add("orphanCollections", ValueType.ARRAY);
+			builder.close();
+			builder.close();
+			builder.close();
+			return new Response(200, builder.slice());
+		}
+		final String key = path.length > 6 ? path[6] : body != null ? keyOf(body) : nextKey();
+		builder.add(ValueType.OBJECT);
+		meta(builder, path[4], path[5], key, type != RequestType.GET && type != RequestType.POST);
+		builder.close();
+		return new Response(type == RequestType.POST ? 202 : 200, builder.slice());
+	}
+
+	/**
+	 * Returns a document for every key in the bind parameters 'key' and 'keys'.
+	 */
+	private Response cursor(final VPackSlice body) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("result", ValueType.ARRAY);
+		final VPackSlice bindVars = body != null && body.isObject() ? body.get("bindVars") : null;
+		long count = 0;
+		if (bindVars != null && bindVars.isObject()) {
+			final VPackSlice key = bindVars.get("key");
+			if (key.isString()) {
+				meta(builder, null, "", key.getAsString(), false);
+				count++;
+			}
+			final VPackSlice keys = bindVars.get("keys");
+			if (keys.isArray()) {
+				for (final Iterator<VPackSlice> iterator = keys.arrayIterator(); iterator.hasNext();) {
+					meta(builder, null, "", keyOf(iterator.next()), false);
+					count++;
+				}
+			}
+		}
+		builder.close();
+		builder.add("count", count);
+		builder.add("hasMore", false);
+		builder.add("cached", false);
+		builder.add("error", false);
+		builder.add("code", 201);
+		builder.close();
+		return new Response(201, builder.slice());
+	}
+
+	private Response importDocuments(final VPackSlice body) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("error", false);
+		builder.add("created", body != null && body.isArray() ? body.getLength() : 0);
+		builder.add("errors", 0);
+		builder.add("empty", 0);
+		builder.add("updated", 0);
+		builder.add("ignored", 0);
+		builder.close();
+		return new Response(201, builder.slice());
+	}
+
+	private Response database(final String database) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("error", false);
+		builder.add("code", 200);
+		builder.add("result", ValueType.OBJECT);
+		builder.add("name", database);
+		builder.add("id", "1");
+		builder.add("path", "");
+		builder.add("isSystem", false);
+		builder.close();
+		builder.close();
+		return new Response(200, builder.slice());
+	}
+
+	/**
+	 * /_api/collection/{name}
+	 */
+	private Response collection(final String[] path) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("error", false);
+		builder.add("code", 200);
+		builder.add("id", "1");
+		builder.add("name", path.length > 3 ? path[3] : "");
+		builder.add("status", 3);
+		builder.add("type", 2);
+		builder.add("isSystem", false);
+		builder.close();
+		return new Response(200, builder.slice());
+	}
+
+	/**
+	 * Echoes the index definition.
+	 */
+	private Response index(final Map<String, String> parameters, final VPackSlice body) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("id", parameters.getOrDefault("collection", "") + "/1");
+		if (body != null && body.isObject()) {
+			for (final Iterator<Entry<String, VPackSlice>> iterator = body.objectIterator(); iterator.hasNext();) {
+				final Entry<String, VPackSlice> attribute = iterator.next();
+				builder.add(attribute.getKey(), attribute.getValue());
+			}
+		}
+		builder.close();
+		return new Response(201, builder.slice());
+	}
+
+	private static Response empty(final int code) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("error", code >= 300);
+		builder.add("code", code);
+		if (code < 300) {
+			builder.add("result", true);
+		} else {
+			builder.add("errorNum", code == 404 ? 404 : 400);
+			builder.add("errorMessage", "not supported by the stub server");
+		}
+		builder.close();
+		return new Response(code, builder.slice());
+	}
+
+	/**
+	 * Adds the meta data of a document as an object, optionally as attribute with the given name.
+	 */
+	private static void meta(
+		final VPackBuilder builder,
+		final String attribute,
+		final String collection,
+		final String key,
+		final boolean oldRev) {
+		builder.add(attribute, ValueType.OBJECT);
+		builder.add("_id", collection + "/" + key);
+		builder.add("_key", key);
+		builder.add("_rev", REV);
+		if (oldRev) {
+			builder.add("_oldRev", REV);
+		}
+		builder.close();
+	}
+
+	private String keyOf(final VPackSlice document) {
+		if (document.isString()) {
+			return document.getAsString();
+		}
+		if (document.isObject()) {
+			final VPackSlice key = document.get("_key");
+			if (key.isString()) {
+				return key.getAsString();
+			}
+		}
+		return nextKey();
+	}
+
+	private String nextKey() {
+		return "stub" + keys.incrementAndGet();
+	}
+
+}
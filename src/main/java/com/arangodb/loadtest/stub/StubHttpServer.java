@@ -0,0 +1,183 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.stub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.loadtest.stub.StubHandler.Response;
+import com.arangodb.velocypack.VPackParser;
+import com.arangodb.velocypack.VPackSlice;
+import com.arangodb.velocystream.RequestType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HTTP transport of the {@link StubServer}. Answers with VelocyPack if the client accepts it (protocol http_vpack),
+ * otherwise with JSON.
+ *
+ * @author Mark Vollmary
+ *
+ */
+class StubHttpServer implements HttpHandler, Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StubHttpServer.class);
+	private static final String CONTENT_TYPE_VPACK = "application/x-velocypack";
+	private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+	private static final String DATABASE_PREFIX = "/_db/";
+	private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	private final StubServer stub;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final VPackParser parser;
+
+	public StubHttpServer(final StubServer stub) throws IOException {
+		super();
+		this.stub = stub;
+		// without TCP_NODELAY every request waits for a delayed ACK (~40ms), must be set before the server is created
+		if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+			System.setProperty(NO_DELAY_PROPERTY, "true");
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+		server.createContext("/", this);
+		executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+			StubServer.daemonThreads());
+		server.setExecutor(executor);
+		parser = new VPackParser.Builder().build();
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	@Override
+	public void handle(final HttpExchange exchange) throws IOException {
+		try {
+			final URI uri = exchange.getRequestURI();
+			String path = uri.getRawPath();
+			String database = "_system";
+			if (path.startsWith(DATABASE_PREFIX)) {
+				final int end = path.indexOf('/', DATABASE_PREFIX.length());
+				database = decode(path.substring(DATABASE_PREFIX.length(), end < 0 ? path.length() : end));
+				path = end < 0 ? "/" : path.substring(end);
+			}
+			final boolean vpack = isVPack(exchange.getRequestHeaders().getFirst("Accept"))
+					|| isVPack(exchange.getRequestHeaders().getFirst("Content-Type"));
+			final byte[] content = readAll(exchange.getRequestBody());
+			final VPackSlice body = content.length == 0 ? null
+					: vpack ? new VPackSlice(content)
+							: parser.fromJson(new String(content, StandardCharsets.UTF_8), true);
+			final Response response = stub.getHandler().handle(database,
+				RequestType.valueOf(exchange.getRequestMethod()), path, parameters(uri.getRawQuery()), body);
+			stub.respond(() -> send(exchange, response, vpack));
+		} catch (final Exception e) {
+			LOGGER.error("Failed to handle request", e);
+			exchange.sendResponseHeaders(500, -1);
+			exchange.close();
+		}
+	}
+
+	private void send(final HttpExchange exchange, final Response response, final boolean vpack) {
+		try {
+			final VPackSlice body = response.getBody();
+			final byte[] content;
+			final int offset;
+			final int length;
+			if (vpack) {
+				content = body.getBuffer();
+				offset = body.getStart();
+				length = body.getByteSize();
+			} else {
+				content = parser.toJson(body, true).getBytes(StandardCharsets.UTF_8);
+				offset = 0;
+				length = content.length;
+			}
+			exchange.getResponseHeaders().set("Content-Type", vpack ? CONTENT_TYPE_VPACK : CONTENT_TYPE_JSON);
+			exchange.sendResponseHeaders(response.getCode(), length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(content, offset, length);
+			}
+		} catch (final IOException e) {
+			LOGGER.debug("Failed to send response", e);
+			exchange.close();
+		}
+	}
+
+	private static boolean isVPack(final String contentType) {
+		return contentType != null && contentType.startsWith(CONTENT_TYPE_VPACK);
+	}
+
+	private static byte[] readAll(final InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		for (int read; (read = in.read(buffer)) >= 0;) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private static Map<String, String> parameters(final String query) throws UnsupportedEncodingException {
+		final Map<String, String> parameters = new HashMap<>();
+		if (query != null) {
+			for (final String parameter : query.split("&")) {
+				final int separator = parameter.indexOf('=');
+				if (separator > 0) {
+					parameters.put(decode(parameter.substring(0, separator)),
+						decode(parameter.substring(separator + 1)));
+				}
+			}
+		}
+		return parameters;
+	}
+
+	private static String decode(final String value) throws UnsupportedEncodingException {
+		return URLDecoder.decode(value, "UTF-8");
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.stub;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Stand-in for ArangoDB on the loopback interface (option 'stub'), which answers the requests of the test cases over
+ * HTTP and VelocyStream with canned responses. Running a test case against the stub server shows the throughput
+ * ceiling and the overhead per operation of the load test itself (driver, serialization, measuring). The responses
+ * can be delayed by a fixed time (option 'stubDelay') to simulate server side latency.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class StubServer implements Closeable {
+
+	private final StubHandler handler;
+	private final long delay;
+	private final ScheduledExecutorService scheduler;
+	private final StubHttpServer http;
+	private final StubVstServer vst;
+
+	public StubServer(final CliOptions options) throws IOException {
+		super();
+		handler = new StubHandler();
+		delay = options.getStubDelay();
+		scheduler = delay > 0
+				? Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), daemonThreads())
+				: null;
+		http = new StubHttpServer(this);
+		vst = new StubVstServer(this, options.getVirtualThreads());
+	}
+
+	static ThreadFactory daemonThreads() {
+		return runnable -> {
+			final Thread thread = new Thread(runnable, "stub-server");
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	public void start() {
+		http.start();
+		vst.start();
+	}
+
+	public int getHttpPort() {
+		return http.getPort();
+	}
+
+	public int getVstPort() {
+		return vst.getPort();
+	}
+
+	StubHandler getHandler() {
+		return handler;
+	}
+
+	/**
+	 * Sends a response, after the delay of option 'stubDelay'.
+	 */
+	void respond(final Runnable send) {
+		if (scheduler == null) {
+			send.run();
+		} else {
+			scheduler.schedule(send, delay, TimeUnit.MICROSECONDS);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		http.close();
+		vst.close();
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+
+}
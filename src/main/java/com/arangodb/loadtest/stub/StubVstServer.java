@@ -0,0 +1,246 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.stub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.loadtest.stub.StubHandler.Response;
+import com.arangodb.loadtest.worker.WorkerThreads;
+import com.arangodb.velocypack.VPackBuilder;
+import com.arangodb.velocypack.VPackSlice;
+import com.arangodb.velocypack.ValueType;
+import com.arangodb.velocystream.RequestType;
+
+/**
+ * VelocyStream (1.0) transport of the {@link StubServer}. Every connection is served by its own thread, which is a
+ * virtual thread with option 'virtualThreads'. Responses are always sent as a single chunk.
+ *
+ * @author Mark Vollmary
+ *
+ */
+class StubVstServer implements Runnable, Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StubVstServer.class);
+	private static final int PROTOCOL_HEADER_SIZE = "VST/1.0\r\n\r\n".length();
+	private static final int CHUNK_MIN_HEADER_SIZE = 16;
+	private static final int CHUNK_MAX_HEADER_SIZE = 24;
+	private static final int MESSAGE_TYPE_RESPONSE = 2;
+	private static final int MESSAGE_TYPE_AUTHENTICATION = 1000;
+
+	private final StubServer stub;
+	private final boolean virtual;
+	private final ServerSocket serverSocket;
+	private final Thread acceptor;
+
+	public StubVstServer(final StubServer stub, final boolean virtual) throws IOException {
+		super();
+		this.stub = stub;
+		this.virtual = virtual;
+		serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+		acceptor = StubServer.daemonThreads().newThread(this);
+	}
+
+	public void start() {
+		acceptor.start();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	@Override
+	public void run() {
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				final Thread thread = WorkerThreads.newThread(new Connection(socket), virtual);
+				thread.setDaemon(true);
+				thread.start();
+			} catch (final IOException e) {
+				if (!serverSocket.isClosed()) {
+					LOGGER.error("Failed to accept connection", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+
+	private static class PendingMessage {
+		private final byte[] content;
+		private int offset;
+
+		public PendingMessage(final long length) {
+			super();
+			content = new byte[(int) length];
+		}
+	}
+
+	private class Connection implements Runnable {
+
+		private final Socket socket;
+		private final DataInputStream in;
+		private final OutputStream out;
+		private final Map<Long, PendingMessage> pending;
+		private final ByteBuffer header;
+
+		public Connection(final Socket socket) throws IOException {
+			super();
+			this.socket = socket;
+			in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			out = new BufferedOutputStream(socket.getOutputStream());
+			pending = new HashMap<>();
+			header = ByteBuffer.allocate(CHUNK_MAX_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		@Override
+		public void run() {
+			try {
+				in.readFully(new byte[PROTOCOL_HEADER_SIZE]);
+				while (true) {
+					readChunk();
+				}
+			} catch (final SocketException e) {
+			} catch (final IOException e) {
+				LOGGER.debug("Connection closed", e);
+			} finally {
+				try {
+					socket.close();
+				} catch (final IOException e) {
+				}
+			}
+		}
+
+		private void readChunk() throws IOException {
+			header.clear();
+			in.readFully(header.array(), 0, CHUNK_MIN_HEADER_SIZE);
+			final int length = header.getInt();
+			final int chunkX = header.getInt();
+			final long messageId = header.getLong();
+			final boolean first = (chunkX & 0x1) == 1;
+			final int numberOfChunks = chunkX >> 1;
+			if (first && numberOfChunks == 1) {
+				final byte[] content = new byte[length - CHUNK_MIN_HEADER_SIZE];
+				in.readFully(content);
+				handle(messageId, content);
+				return;
+			}
+			final PendingMessage message;
+			final int contentLength;
+			if (first) {
+				in.readFully(header.array(), CHUNK_MIN_HEADER_SIZE, CHUNK_MAX_HEADER_SIZE - CHUNK_MIN_HEADER_SIZE);
+				message = new PendingMessage(header.getLong());
+				pending.put(messageId, message);
+				contentLength = length - CHUNK_MAX_HEADER_SIZE;
+			} else {
+				message = pending.get(messageId);
+				contentLength = length - CHUNK_MIN_HEADER_SIZE;
+			}
+			in.readFully(message.content, message.offset, contentLength);
+			message.offset += contentLength;
+			if (message.offset == message.content.length) {
+				pending.remove(messageId);
+				handle(messageId, message.content);
+			}
+		}
+
+		/**
+		 * A message consists of the header (array of version, type, database, request type, path, parameters, meta)
+		 * and optionally the body.
+		 */
+		private void handle(final long messageId, final byte[] message) {
+			final VPackSlice head = new VPackSlice(message);
+			if (head.get(1).getAsInt() == MESSAGE_TYPE_AUTHENTICATION) {
+				send(messageId, 200, null);
+				return;
+			}
+			final int headSize = head.getByteSize();
+			final VPackSlice body = message.length > headSize ? new VPackSlice(message, headSize) : null;
+			final Map<String, String> parameters = new HashMap<>();
+			final VPackSlice parameterSlice = head.get(5);
+			if (parameterSlice.isObject()) {
+				for (final Iterator<Entry<String, VPackSlice>> iterator = parameterSlice.objectIterator(); iterator
+						.hasNext();) {
+					final Entry<String, VPackSlice> parameter = iterator.next();
+					final VPackSlice value = parameter.getValue();
+					parameters.put(parameter.getKey(), value.isString() ? value.getAsString() : value.toString());
+				}
+			}
+			final Response response = stub.getHandler().handle(head.get(2).getAsString(),
+				RequestType.fromType(head.get(3).getAsInt()), head.get(4).getAsString(), parameters, body);
+			stub.respond(() -> send(messageId, response.getCode(), response.getBody()));
+		}
+
+		private void send(final long messageId, final int code, final VPackSlice body) {
+			final VPackBuilder builder = new VPackBuilder();
+			builder.add(ValueType.ARRAY);
+			builder.add(1);
+			builder.add(MESSAGE_TYPE_RESPONSE);
+			builder.add(code);
+			builder.add(ValueType.OBJECT);
+			builder.close();
+			builder.close();
+			final VPackSlice head = builder.slice();
+			final int headSize = head.getByteSize();
+			final int bodySize = body != null ? body.getByteSize() : 0;
+			final ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_MIN_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			chunkHeader.putInt(CHUNK_MIN_HEADER_SIZE + headSize + bodySize);
+			chunkHeader.putInt(1 << 1 | 1);
+			chunkHeader.putLong(messageId);
+			try {
+				synchronized (out) {
+					out.write(chunkHeader.array());
+					out.write(head.getBuffer(), head.getStart(), headSize);
+					if (body != null) {
+						out.write(body.getBuffer(), body.getStart(), bodySize);
+					}
+					out.flush();
+				}
+			} catch (final IOException e) {
+				LOGGER.debug("Failed to send response", e);
+			}
+		}
+
+	}
+
+}
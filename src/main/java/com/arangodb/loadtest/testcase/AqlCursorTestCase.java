@@ -0,0 +1,122 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.arangodb.ArangoCursor;
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.KeyGen;
+import com.arangodb.loadtest.util.Stopwatch;
+import com.arangodb.model.AqlQueryOptions;
+import com.arangodb.util.MapBuilder;
+import com.arangodb.velocypack.VPackSlice;
+
+/**
+ * Reads a large result through a cursor (options 'cursorBatchSize' and 'cursorStream'): the documents of a key range
+ * (option 'cursorLimit', in key order from a chosen key on) or of the whole collection. The documents are consumed one
+ * by one as raw VelocyPack, so only the current batch is held in memory.
+ * <p>
+ * Besides the latency of the whole query the test case records the time to the first batch (phase
+ * {@value #PHASE_FIRST_BATCH}) and the latency of fetching every further batch (phase {@value #PHASE_NEXT_BATCH}). The
+ * number of read documents is recorded as result size. A further batch is fetched when all documents of the current
+ * one are consumed, whereby the server fills every batch but the last.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class AqlCursorTestCase extends ArangoTestCase {
+
+	public static final String PHASE_FIRST_BATCH = "first_batch";
+	public static final String PHASE_NEXT_BATCH = "next_batch";
+
+	private final AqlQueryOptions queryOptions;
+	private final ArangoDatabase db;
+	private final String query;
+	private final KeyGen keyGen;
+	private final LatencyRecorder firstBatch;
+	private final LatencyRecorder nextBatch;
+	private List<String> keys;
+
+	public AqlCursorTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder, final KeyGen keyGen) {
+		super(builder, options, num, recorder);
+		this.keyGen = keyGen;
+		db = arango.db(options.getDatabase());
+		query = options.getCursorLimit() > 0
+				? "FOR d IN @@collection FILTER d._key >= @start SORT d._key LIMIT @limit RETURN d"
+				: "FOR d IN @@collection RETURN d";
+		queryOptions = new AqlQueryOptions().batchSize(options.getCursorBatchSize()).stream(options.getCursorStream());
+		firstBatch = recorder.getPhaseRecorder(PHASE_FIRST_BATCH);
+		nextBatch = recorder.getPhaseRecorder(PHASE_NEXT_BATCH);
+	}
+
+	@Override
+	protected void _prepare() {
+		keys = keyGen.selectKeys(1);
+	}
+
+	@Override
+	protected void _run() throws ArangoDBException {
+		if (options.getBatchSize() != 1) {
+			throw new IllegalArgumentException(
+					"'batchSize' not supported with testcase '" + TestCase.AQL_CURSOR.toString().toLowerCase() + "'");
+		}
+		final MapBuilder bindVars = new MapBuilder().put("@collection", options.getCollection());
+		if (options.getCursorLimit() > 0) {
+			bindVars.put("start", keys.get(0)).put("limit", options.getCursorLimit());
+		}
+		final int batchSize = options.getCursorBatchSize();
+		final Stopwatch sw = new Stopwatch();
+		final ArangoCursor<VPackSlice> cursor = db.query(query, bindVars.get(), queryOptions, VPackSlice.class);
+		record(firstBatch, sw);
+		long count = 0;
+		try {
+			while (true) {
+				final boolean fetch = count > 0 && count % batchSize == 0;
+				if (fetch) {
+					sw.start();
+				}
+				if (!cursor.hasNext()) {
+					break;
+				}
+				if (fetch) {
+					record(nextBatch, sw);
+				}
+				cursor.next();
+				count++;
+			}
+		} finally {
+			try {
+				cursor.close();
+			} catch (final IOException e) {
+				throw new ArangoDBException(e);
+			}
+		}
+		recorder.recordResultSize(count);
+	}
+
+}
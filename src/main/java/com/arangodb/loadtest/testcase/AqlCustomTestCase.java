@@ -20,14 +20,15 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.arangodb.ArangoDB;
 import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.DocumentCreator;
 import com.arangodb.loadtest.util.KeyGen;
 import com.arangodb.model.AqlQueryOptions;
@@ -49,8 +50,8 @@ public class AqlCustomTestCase extends ArangoTestCase {
 	private List<String> keys;
 
 	public AqlCustomTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen, final DocumentCreator documentCreator) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
 		this.keyGen = keyGen;
 		db = arango.db(options.getDatabase());
 		queryOptions = new AqlQueryOptions().batchSize(options.getCursorBatchSize());
@@ -70,6 +71,13 @@ public class AqlCustomTestCase extends ArangoTestCase {
 		if (query.isEmpty()) {
 			throw new IllegalArgumentException("AQL query is empty!");
 		}
+		db.query(query, bindVars(query), queryOptions, VPackSlice.class);
+	}
+
+	/**
+	 * Builds the bind parameters for the bind variables used in the given query.
+	 */
+	Map<String, Object> bindVars(final String query) {
 		final MapBuilder bindVars = new MapBuilder();
 		if (query.contains("@graph")) {
 			bindVars.put("graph", options.getGraph());
@@ -93,7 +101,7 @@ public class AqlCustomTestCase extends ArangoTestCase {
 		} else if (query.contains("@key")) {
 			bindVars.put("key", keys.get(0));
 		}
-		db.query(query, bindVars.get(), queryOptions, VPackSlice.class);
+		return bindVars.get();
 	}
 
 }
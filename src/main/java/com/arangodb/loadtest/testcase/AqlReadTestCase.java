@@ -20,7 +20,6 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoDB;
@@ -28,6 +27,7 @@ import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.KeyGen;
 import com.arangodb.model.AqlQueryOptions;
 import com.arangodb.util.MapBuilder;
@@ -46,8 +46,8 @@ public class AqlReadTestCase extends ArangoTestCase {
 	private List<String> keys;
 
 	public AqlReadTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen) {
+		super(builder, options, num, recorder);
 		this.keyGen = keyGen;
 		db = arango.db(options.getDatabase());
 		collection = options.getCollection();
@@ -57,7 +57,7 @@ public class AqlReadTestCase extends ArangoTestCase {
 	@Override
 	protected void _prepare() {
 		final Integer batchSize = options.getBatchSize();
-		keys = keyGen.generateKeys(batchSize);
+		keys = keyGen.selectKeys(batchSize);
 	}
 
 	@Override
@@ -20,7 +20,6 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoDB;
@@ -28,6 +27,7 @@ import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.DocumentCreator;
 import com.arangodb.loadtest.util.KeyGen;
 import com.arangodb.model.AqlQueryOptions;
@@ -49,8 +49,8 @@ public class AqlReplaceTestCase extends ArangoTestCase {
 	private List<BaseDocument> documents;
 
 	public AqlReplaceTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen, final DocumentCreator documentCreator) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
 		this.keyGen = keyGen;
 		db = arango.db(options.getDatabase());
 		collection = options.getCollection();
@@ -61,7 +61,7 @@ public class AqlReplaceTestCase extends ArangoTestCase {
 	@Override
 	protected void _prepare() {
 		final Integer batchSize = options.getBatchSize();
-		documents = documentCreator.create(keyGen.generateKeys(batchSize));
+		documents = documentCreator.create(keyGen.selectKeys(batchSize));
 	}
 
 	@Override
@@ -22,15 +22,16 @@ package com.arangodb.loadtest.testcase;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.Collection;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.arangodb.ArangoDB;
 import com.arangodb.ArangoDBException;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.HostTracking;
 import com.arangodb.loadtest.util.KeyGen;
 import com.arangodb.loadtest.util.Stopwatch;
 
@@ -40,30 +41,45 @@ import com.arangodb.loadtest.util.Stopwatch;
  */
 public abstract class ArangoTestCase implements Closeable {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(ArangoTestCase.class);
-
 	public static interface InstanceCreator {
 		ArangoTestCase create(
 			ArangoDB.Builder builder,
 			CliOptions options,
 			int num,
-			Collection<Long> times,
+			LatencyRecorder recorder,
 			KeyGen keyGen,
 			DocumentCreator documentCreator);
 	}
 
+	/**
+	 * The drivers shared by the virtual threads (option 'virtualThreads'), one per operation of the test case (see
+	 * {@link LatencyRecorder#getOperation()}). There can be tens of thousands of virtual threads, so they can not have
+	 * a driver and connection pool each.
+	 */
+	private static final Map<String, ArangoDB> SHARED = new ConcurrentHashMap<>();
+
 	protected final CliOptions options;
 	protected final ArangoDB arango;
 	protected final int num;
-	protected final Collection<Long> times;
+	protected final LatencyRecorder recorder;
 
 	public ArangoTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times) {
+		final LatencyRecorder recorder) {
 		super();
-		arango = builder.build();
+		arango = options.getVirtualThreads()
+				? SHARED.computeIfAbsent(Objects.toString(recorder.getOperation(), ""), o -> builder.build())
+				: builder.build();
 		this.options = options;
 		this.num = num;
-		this.times = times;
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Shuts down the drivers shared by the virtual threads. Called once all workers of a test case are closed.
+	 */
+	public static void closeShared() {
+		SHARED.values().forEach(ArangoDB::shutdown);
+		SHARED.clear();
 	}
 
 	protected void _prepare() {
@@ -73,18 +89,99 @@ public abstract class ArangoTestCase implements Closeable {
 
 	public void run() throws ArangoDBException {
 		_prepare();
+		recorder.operationStarted();
 		final Stopwatch sw = new Stopwatch();
+		final HostTracking.Scope host = HostTracking.open();
+		final String errorCode;
+		try {
+			errorCode = execute();
+		} finally {
+			host.close();
+		}
+		final long serviceTime = sw.getElapsedTime();
+		record(recorder, serviceTime, -1, errorCode);
+		record(recorder.getHostRecorder(host.getHost()), serviceTime, -1, errorCode);
+		recorder.operationFinished();
+	};
+
+	/**
+	 * Runs the operation as part of an open-loop schedule.
+	 *
+	 * @param intendedStartTime
+	 *            the time (as of {@link System#nanoTime()}) the operation was scheduled to start. The response time is
+	 *            measured from this point in time, so that a delayed start is not hidden from the results.
+	 */
+	public void run(final long intendedStartTime) throws ArangoDBException {
+		_prepare();
+		recorder.operationStarted();
+		final Stopwatch sw = new Stopwatch();
+		final HostTracking.Scope host = HostTracking.open();
+		final String errorCode;
+		try {
+			errorCode = execute();
+		} finally {
+			host.close();
+		}
+		final long serviceTime = sw.getElapsedTime();
+		final long responseTime = System.nanoTime() - intendedStartTime;
+		record(recorder, serviceTime, responseTime, errorCode);
+		record(recorder.getHostRecorder(host.getHost()), serviceTime, responseTime, errorCode);
+		recorder.operationFinished();
+	};
+
+	/**
+	 * @param recorder
+	 *            may be {@code null}, e.g. the recorder of the host without option 'hostLatencies'
+	 * @param responseTime
+	 *            the response time, negative in closed-loop mode
+	 * @param errorCode
+	 *            the error code if the operation failed, otherwise null
+	 */
+	static void record(
+		final LatencyRecorder recorder,
+		final long serviceTime,
+		final long responseTime,
+		final String errorCode) {
+		if (recorder == null) {
+			return;
+		}
+		if (errorCode != null) {
+			recorder.recordFailure(serviceTime, errorCode);
+		} else if (responseTime >= 0) {
+			recorder.record(serviceTime, responseTime);
+		} else {
+			recorder.record(serviceTime);
+		}
+	}
+
+	/**
+	 * Records the time elapsed on the given stopwatch, e.g. of a phase of the operation.
+	 *
+	 * @param recorder
+	 *            may be {@code null}, e.g. the recorder of a phase without shared recorders
+	 */
+	static void record(final LatencyRecorder recorder, final Stopwatch sw) {
+		if (recorder != null) {
+			recorder.record(sw.getElapsedTime());
+		}
+	}
+
+	/**
+	 * @return the error code if the operation failed, otherwise null
+	 */
+	private String execute() {
 		try {
 			_run();
+			return null;
 		} catch (final ArangoDBException e) {
-			LOGGER.error("Error during test run", e);
+			return ErrorLog.log(e);
 		}
-		final long elapsedTime = sw.getElapsedTime();
-		times.add(elapsedTime);
-	};
+	}
 
 	@Override
 	public void close() throws IOException {
-		arango.shutdown();
+		if (!options.getVirtualThreads()) {
+			arango.shutdown();
+		}
 	}
 }
@@ -0,0 +1,137 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import com.arangodb.ArangoDBAsync;
+import com.arangodb.ArangoDBException;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.HostTracking;
+import com.arangodb.loadtest.util.KeyGen;
+import com.arangodb.loadtest.util.Stopwatch;
+
+/**
+ * Test case which issues its operations through the asynchronous driver. The latency is recorded when the operation
+ * completes, so that multiple operations can be in flight at the same time.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public abstract class AsyncArangoTestCase implements Closeable {
+
+	public static interface InstanceCreator {
+		AsyncArangoTestCase create(
+			ArangoDBAsync.Builder builder,
+			CliOptions options,
+			int num,
+			LatencyRecorder recorder,
+			KeyGen keyGen,
+			DocumentCreator documentCreator);
+	}
+
+	protected final CliOptions options;
+	protected final ArangoDBAsync arango;
+	protected final int num;
+	protected final LatencyRecorder recorder;
+
+	public AsyncArangoTestCase(final ArangoDBAsync.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder) {
+		super();
+		arango = builder.build();
+		this.options = options;
+		this.num = num;
+		this.recorder = recorder;
+	}
+
+	protected void _prepare() {
+	};
+
+	protected abstract CompletableFuture<?> _run() throws ArangoDBException;
+
+	public CompletableFuture<?> run() {
+		_prepare();
+		recorder.operationStarted();
+		final Stopwatch sw = new Stopwatch();
+		final HostTracking.Scope host = HostTracking.open();
+		final CompletableFuture<?> future;
+		try {
+			future = execute();
+		} finally {
+			host.close();
+		}
+		return future.whenComplete((r, e) -> {
+			final long serviceTime = sw.getElapsedTime();
+			final String errorCode = e != null ? ErrorLog.log(e) : null;
+			ArangoTestCase.record(recorder, serviceTime, -1, errorCode);
+			ArangoTestCase.record(recorder.getHostRecorder(host.getHost()), serviceTime, -1, errorCode);
+			recorder.operationFinished();
+		});
+	}
+
+	/**
+	 * Runs the operation as part of an open-loop schedule.
+	 *
+	 * @param intendedStartTime
+	 *            the time (as of {@link System#nanoTime()}) the operation was scheduled to start
+	 */
+	public CompletableFuture<?> run(final long intendedStartTime) {
+		_prepare();
+		recorder.operationStarted();
+		final Stopwatch sw = new Stopwatch();
+		final HostTracking.Scope host = HostTracking.open();
+		final CompletableFuture<?> future;
+		try {
+			future = execute();
+		} finally {
+			host.close();
+		}
+		return future.whenComplete((r, e) -> {
+			final long serviceTime = sw.getElapsedTime();
+			final long responseTime = System.nanoTime() - intendedStartTime;
+			final String errorCode = e != null ? ErrorLog.log(e) : null;
+			ArangoTestCase.record(recorder, serviceTime, responseTime, errorCode);
+			ArangoTestCase.record(recorder.getHostRecorder(host.getHost()), serviceTime, responseTime, errorCode);
+			recorder.operationFinished();
+		});
+	}
+
+	private CompletableFuture<?> execute() {
+		CompletableFuture<?> future;
+		try {
+			future = _run();
+		} catch (final ArangoDBException e) {
+			final CompletableFuture<?> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			future = failed;
+		}
+		return future;
+	}
+
+	@Override
+	public void close() throws IOException {
+		arango.shutdown();
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.arangodb.ArangoCollectionAsync;
+import com.arangodb.ArangoDBAsync;
+import com.arangodb.ArangoDBException;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.KeyGen;
+
+/**
+ * @author Mark Vollmary
+ *
+ */
+public class AsyncDocumentReplaceTestCase extends AsyncArangoTestCase {
+
+	private final ArangoCollectionAsync collection;
+	private final KeyGen keyGen;
+	private final DocumentCreator documentCreator;
+	private List<String> keys;
+	private List<?> documents;
+
+	public AsyncDocumentReplaceTestCase(final ArangoDBAsync.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
+		collection = arango.db(options.getDatabase()).collection(options.getCollection());
+		this.keyGen = keyGen;
+		this.documentCreator = documentCreator;
+	}
+
+	@Override
+	protected void _prepare() {
+		final Integer batchSize = options.getBatchSize();
+		keys = keyGen.selectKeys(batchSize);
+		documents = options.getDocPayloadPool()
+				? documentCreator.createSerializedDetached(keys)
+				: documentCreator.createDetached(keys);
+	}
+
+	@Override
+	protected CompletableFuture<?> _run() throws ArangoDBException {
+		final Integer batchSize = options.getBatchSize();
+		if (batchSize == 1) {
+			return collection.replaceDocument(keys.get(0), documents.get(0));
+		} else {
+			return collection.replaceDocuments(documents);
+		}
+	}
+
+}
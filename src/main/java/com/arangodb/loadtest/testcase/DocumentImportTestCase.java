@@ -20,7 +20,6 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoCollection;
@@ -28,6 +27,7 @@ import com.arangodb.ArangoDB;
 import com.arangodb.ArangoDBException;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.DocumentCreator;
 import com.arangodb.loadtest.util.KeyGen;
 
@@ -44,8 +44,8 @@ public class DocumentImportTestCase extends ArangoTestCase {
 	private List<BaseDocument> documents;
 
 	public DocumentImportTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen, final DocumentCreator documentCreator) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
 		this.keyGen = keyGen;
 		collection = arango.db(options.getDatabase()).collection(options.getCollection());
 		this.documentCreator = documentCreator;
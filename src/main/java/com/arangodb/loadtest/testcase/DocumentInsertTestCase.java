@@ -20,14 +20,13 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoCollection;
 import com.arangodb.ArangoDB;
 import com.arangodb.ArangoDBException;
-import com.arangodb.entity.BaseDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.DocumentCreator;
 import com.arangodb.loadtest.util.KeyGen;
 
@@ -41,11 +40,11 @@ public class DocumentInsertTestCase extends ArangoTestCase {
 	private final ArangoCollection collection;
 	private final DocumentCreator documentCreator;
 	private final KeyGen keyGen;
-	private List<BaseDocument> documents;
+	private List<?> documents;
 
 	public DocumentInsertTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen, final DocumentCreator documentCreator) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
 		this.keyGen = keyGen;
 		collection = arango.db(options.getDatabase()).collection(options.getCollection());
 		this.documentCreator = documentCreator;
@@ -54,7 +53,10 @@ public class DocumentInsertTestCase extends ArangoTestCase {
 	@Override
 	protected void _prepare() {
 		final Integer batchSize = options.getBatchSize();
-		documents = documentCreator.create(keyGen.generateKeys(batchSize));
+		final List<String> keys = keyGen.generateKeys(batchSize);
+		documents = options.getDocPayloadPool()
+				? documentCreator.createSerialized(keys)
+				: documentCreator.create(keys);
 	}
 
 	@Override
@@ -20,7 +20,6 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoCollection;
@@ -29,6 +28,7 @@ import com.arangodb.ArangoDBException;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.entity.MultiDocumentEntity;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.KeyGen;
 
 /**
@@ -43,8 +43,8 @@ public class DocumentReadTestCase extends ArangoTestCase {
 	private List<String> keys;
 
 	public DocumentReadTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen) {
+		super(builder, options, num, recorder);
 		this.keyGen = keyGen;
 		collection = arango.db(options.getDatabase()).collection(options.getCollection());
 	}
@@ -52,7 +52,7 @@ public class DocumentReadTestCase extends ArangoTestCase {
 	@Override
 	protected void _prepare() {
 		final Integer batchSize = options.getBatchSize();
-		keys = keyGen.generateKeys(batchSize);
+		keys = keyGen.selectKeys(batchSize);
 	}
 
 	@Override
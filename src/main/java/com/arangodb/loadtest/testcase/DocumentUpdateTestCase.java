@@ -20,14 +20,13 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoCollection;
 import com.arangodb.ArangoDB.Builder;
 import com.arangodb.ArangoDBException;
-import com.arangodb.entity.BaseDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.DocumentCreator;
 import com.arangodb.loadtest.util.KeyGen;
 
@@ -40,11 +39,12 @@ public class DocumentUpdateTestCase extends ArangoTestCase {
 	private final ArangoCollection collection;
 	private final KeyGen keyGen;
 	private final DocumentCreator documentCreator;
-	private List<BaseDocument> documents;
+	private List<String> keys;
+	private List<?> documents;
 
 	public DocumentUpdateTestCase(final Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen, final DocumentCreator documentCreator) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
 		collection = arango.db(options.getDatabase()).collection(options.getCollection());
 		this.keyGen = keyGen;
 		this.documentCreator = documentCreator;
@@ -53,14 +53,17 @@ public class DocumentUpdateTestCase extends ArangoTestCase {
 	@Override
 	protected void _prepare() {
 		final Integer batchSize = options.getBatchSize();
-		documents = documentCreator.create(keyGen.generateKeys(batchSize));
+		keys = keyGen.selectKeys(batchSize);
+		documents = options.getDocPayloadPool()
+				? documentCreator.createSerialized(keys)
+				: documentCreator.create(keys);
 	}
 
 	@Override
 	protected void _run() throws ArangoDBException {
 		final Integer batchSize = options.getBatchSize();
 		if (batchSize == 1) {
-			collection.updateDocument(documents.get(0).getKey(), documents.get(0));
+			collection.updateDocument(keys.get(0), documents.get(0));
 		} else {
 			collection.updateDocuments(documents);
 		}
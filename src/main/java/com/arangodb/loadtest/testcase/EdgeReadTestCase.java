@@ -20,7 +20,6 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoDB;
@@ -28,6 +27,7 @@ import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoEdgeCollection;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.KeyGen;
 
 /**
@@ -42,8 +42,8 @@ public class EdgeReadTestCase extends ArangoTestCase {
 	private List<String> keys;
 
 	public EdgeReadTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen) {
+		super(builder, options, num, recorder);
 		this.keyGen = keyGen;
 		collection = arango.db(options.getDatabase()).graph(options.getGraph())
 				.edgeCollection(options.getEdgeCollection());
@@ -52,7 +52,7 @@ public class EdgeReadTestCase extends ArangoTestCase {
 	@Override
 	protected void _prepare() {
 		final Integer batchSize = options.getBatchSize();
-		keys = keyGen.generateKeys(batchSize);
+		keys = keyGen.selectKeys(batchSize);
 	}
 
 	@Override
@@ -20,7 +20,6 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
 import java.util.List;
 
 import com.arangodb.ArangoDB.Builder;
@@ -28,6 +27,7 @@ import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoEdgeCollection;
 import com.arangodb.entity.BaseEdgeDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 import com.arangodb.loadtest.util.DocumentCreator;
 import com.arangodb.loadtest.util.KeyGen;
 
@@ -43,8 +43,8 @@ public class EdgeUpdateTestCase extends ArangoTestCase {
 	private List<BaseEdgeDocument> documents;
 
 	public EdgeUpdateTestCase(final Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times, final KeyGen keyGen, final DocumentCreator documentCreator) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
 		collection = arango.db(options.getDatabase()).graph(options.getGraph())
 				.edgeCollection(options.getEdgeCollection());
 		this.keyGen = keyGen;
@@ -54,7 +54,7 @@ public class EdgeUpdateTestCase extends ArangoTestCase {
 	@Override
 	protected void _prepare() {
 		final Integer batchSize = options.getBatchSize();
-		documents = documentCreator.createEdge(keyGen.generateKeys(batchSize));
+		documents = documentCreator.createEdge(keyGen.selectKeys(batchSize));
 	}
 
 	@Override
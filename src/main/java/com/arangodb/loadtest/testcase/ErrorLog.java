@@ -0,0 +1,98 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoDBException;
+
+/**
+ * Classifies failed operations by error code and logs them. Under load a failing server can produce thousands of
+ * errors per second, so at most one error per second is logged, together with the number of errors suppressed since
+ * the last one. The stack trace is only logged on debug level.
+ *
+ * @author Mark Vollmary
+ *
+ */
+final class ErrorLog {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ErrorLog.class);
+	private static final long LOG_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+	private static final String UNKNOWN = "-";
+
+	private static final AtomicLong nextLog = new AtomicLong(System.nanoTime());
+	private static final AtomicLong suppressed = new AtomicLong();
+
+	private ErrorLog() {
+		super();
+	}
+
+	/**
+	 * Logs the given error, unless an error was already logged within the last second.
+	 *
+	 * @return the error code of the given error
+	 */
+	static String log(final Throwable error) {
+		final Throwable cause = unwrap(error);
+		final String errorCode = errorCode(cause);
+		final long now = System.nanoTime();
+		final long next = nextLog.get();
+		if (now - next >= 0 && nextLog.compareAndSet(next, now + LOG_INTERVAL)) {
+			final long count = suppressed.getAndSet(0);
+			LOGGER.error("Error during test run ({}): {}{}", errorCode, cause.getMessage(),
+				count > 0 ? " (" + count + " more errors since last log)" : "");
+			LOGGER.debug("Error during test run", cause);
+		} else {
+			suppressed.incrementAndGet();
+		}
+		return errorCode;
+	}
+
+	/**
+	 * @return the HTTP status and the ArangoDB error number of the given error or its causes, separated by '/', e.g.
+	 *         "409/1200". Unknown parts, e.g. of client side errors, are "-".
+	 */
+	static String errorCode(final Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ArangoDBException && ((ArangoDBException) cause).getResponseCode() != null) {
+				final ArangoDBException e = (ArangoDBException) cause;
+				return e.getResponseCode() + "/" + (e.getErrorNum() != null ? e.getErrorNum().toString() : UNKNOWN);
+			}
+		}
+		return UNKNOWN + "/" + UNKNOWN;
+	}
+
+	private static Throwable unwrap(final Throwable error) {
+		Throwable cause = error;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+				&& cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+
+}
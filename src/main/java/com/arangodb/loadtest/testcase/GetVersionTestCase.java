@@ -20,11 +20,10 @@
 
 package com.arangodb.loadtest.testcase;
 
-import java.util.Collection;
-
 import com.arangodb.ArangoDB;
 import com.arangodb.ArangoDBException;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
 
 /**
  * @author Mark Vollmary
@@ -33,8 +32,8 @@ import com.arangodb.loadtest.cli.CliOptions;
 public class GetVersionTestCase extends ArangoTestCase {
 
 	public GetVersionTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
-		final Collection<Long> times) {
-		super(builder, options, num, times);
+		final LatencyRecorder recorder) {
+		super(builder, options, num, recorder);
 	}
 
 	@Override
@@ -0,0 +1,133 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.KeyGen;
+import com.arangodb.model.AqlQueryOptions;
+import com.arangodb.util.MapBuilder;
+import com.arangodb.velocypack.VPackSlice;
+
+/**
+ * Queries the documents by the value of an indexed field (option 'indexField', see options 'docIndexSimple',
+ * 'docIndexLargeSimple', 'docIndexArrays' and 'docIndexObjects'): test case 'index_get' the documents with a value,
+ * test case 'index_range' the first documents (option 'indexLimit') from a value on in the order of the field, test
+ * case 'index_in' the documents with any of several values (option 'batchSize'). With field '_key' the test cases
+ * query the primary index instead (option 'indexCompare').
+ * <p>
+ * The values are sampled from the inserted documents: on the first operation every worker reads the field of
+ * {@value #SAMPLE_SIZE} documents, chosen like the keys of test case 'aql_get', and then picks the values of its
+ * queries out of them. The number of returned documents is recorded as result size.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class IndexTestCase extends ArangoTestCase {
+
+	public static final String PRIMARY_INDEX_FIELD = "_key";
+
+	private static final int SAMPLE_SIZE = 1000;
+
+	private final AqlQueryOptions queryOptions;
+	private final ArangoDatabase db;
+	private final String query;
+	private final String sampleQuery;
+	private final TestCase test;
+	private final KeyGen keyGen;
+	private final SplittableRandom random;
+	private final List<Object> values;
+	private List<Object> sample;
+
+	/**
+	 * @param test
+	 *            {@link TestCase#INDEX_GET}, {@link TestCase#INDEX_RANGE} or {@link TestCase#INDEX_IN}
+	 * @param field
+	 *            the queried field, {@link #PRIMARY_INDEX_FIELD} for the primary index
+	 */
+	public IndexTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder, final KeyGen keyGen, final TestCase test, final String field) {
+		super(builder, options, num, recorder);
+		this.keyGen = keyGen;
+		this.test = test;
+		db = arango.db(options.getDatabase());
+		final String attribute = "d.`" + field + "`";
+		switch (test) {
+		case INDEX_RANGE:
+			query = "FOR d IN @@collection FILTER " + attribute + " >= @value SORT " + attribute
+					+ " LIMIT @limit RETURN d";
+			break;
+		case INDEX_IN:
+			query = "FOR d IN @@collection FILTER " + attribute + " IN @values RETURN d";
+			break;
+		default:
+			query = "FOR d IN @@collection FILTER " + attribute + " == @value RETURN d";
+			break;
+		}
+		sampleQuery = "FOR d IN @@collection FILTER d._key IN @keys FILTER " + attribute + " != null RETURN "
+				+ attribute;
+		queryOptions = new AqlQueryOptions().batchSize(options.getCursorBatchSize()).stream(options.getCursorStream());
+		random = new SplittableRandom();
+		values = new ArrayList<>();
+	}
+
+	@Override
+	protected void _prepare() {
+		if (sample == null) {
+			sample = db.query(sampleQuery, new MapBuilder().put("@collection", options.getCollection())
+					.put("keys", keyGen.selectKeys(SAMPLE_SIZE)).get(),
+				null, Object.class).asListRemaining();
+			if (sample.isEmpty()) {
+				throw new IllegalStateException(String.format(
+					"No documents to sample the values of test case '%s' from, populate the collection first",
+					test.toString().toLowerCase()));
+			}
+		}
+		values.clear();
+		final int quantity = test == TestCase.INDEX_IN ? options.getBatchSize() : 1;
+		for (int i = 0; i < quantity; i++) {
+			values.add(sample.get(random.nextInt(sample.size())));
+		}
+	}
+
+	@Override
+	protected void _run() throws ArangoDBException {
+		final MapBuilder bindVars = new MapBuilder().put("@collection", options.getCollection());
+		if (test == TestCase.INDEX_IN) {
+			bindVars.put("values", values);
+		} else {
+			bindVars.put("value", values.get(0));
+		}
+		if (test == TestCase.INDEX_RANGE) {
+			bindVars.put("limit", options.getIndexLimit());
+		}
+		recorder.recordResultSize(
+			TraversalTestCase.count(db.query(query, bindVars.get(), queryOptions, VPackSlice.class)));
+	}
+
+}
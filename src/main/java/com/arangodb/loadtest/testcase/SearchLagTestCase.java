@@ -0,0 +1,111 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.arangodb.ArangoCollection;
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.DatabaseSetupUtils;
+import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.KeyGen;
+import com.arangodb.loadtest.util.Stopwatch;
+import com.arangodb.util.MapBuilder;
+
+/**
+ * Measures how long it takes until an inserted document becomes searchable in the view of option 'docView'. Every
+ * operation inserts a new document and then queries the view for its key (option 'searchPollInterval') until it is
+ * found. The latency of the insert (phase {@value #PHASE_INSERT}) and the time from its response until the document
+ * was found (phase {@value #PHASE_SEARCHABLE}) are recorded separately. The lag depends on the commits and
+ * consolidations of the view (option 'docViewConsolidationInterval') and grows with the concurrent write load, e.g. of
+ * the other threads or of insert operations in test case 'mix'.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class SearchLagTestCase extends ArangoTestCase {
+
+	public static final String PHASE_INSERT = "insert";
+	public static final String PHASE_SEARCHABLE = "searchable";
+
+	private static final long TIMEOUT = TimeUnit.MINUTES.toNanos(1);
+
+	private final ArangoCollection collection;
+	private final ArangoDatabase db;
+	private final String query;
+	private final DocumentCreator documentCreator;
+	private final KeyGen keyGen;
+	private final long pollInterval;
+	private final LatencyRecorder insert;
+	private final LatencyRecorder searchable;
+	private String key;
+	private List<?> documents;
+
+	public SearchLagTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder, final KeyGen keyGen, final DocumentCreator documentCreator) {
+		super(builder, options, num, recorder);
+		this.keyGen = keyGen;
+		this.documentCreator = documentCreator;
+		db = arango.db(options.getDatabase());
+		collection = db.collection(options.getCollection());
+		query = "FOR d IN " + DatabaseSetupUtils.VIEW + " SEARCH d._key == @key LIMIT 1 RETURN d._key";
+		pollInterval = TimeUnit.MILLISECONDS.toNanos(options.getSearchPollInterval());
+		insert = recorder.getPhaseRecorder(PHASE_INSERT);
+		searchable = recorder.getPhaseRecorder(PHASE_SEARCHABLE);
+	}
+
+	@Override
+	protected void _prepare() {
+		final List<String> keys = keyGen.generateKeys(1);
+		key = keys.get(0);
+		documents = options.getDocPayloadPool() ? documentCreator.createSerialized(keys)
+				: documentCreator.create(keys);
+	}
+
+	@Override
+	protected void _run() throws ArangoDBException {
+		if (options.getBatchSize() != 1) {
+			throw new IllegalArgumentException(
+					"'batchSize' not supported with testcase '" + TestCase.SEARCH_LAG.toString().toLowerCase() + "'");
+		}
+		final Stopwatch sw = new Stopwatch();
+		collection.insertDocument(documents.get(0));
+		record(insert, sw);
+		sw.start();
+		final Map<String, Object> bindVars = new MapBuilder().put("key", key).get();
+		while (TraversalTestCase.count(db.query(query, bindVars, null, String.class)) == 0) {
+			if (sw.getElapsedTime() > TIMEOUT) {
+				throw new ArangoDBException(String.format("Document %s not searchable after %s seconds", key,
+					TimeUnit.NANOSECONDS.toSeconds(TIMEOUT)));
+			}
+			LockSupport.parkNanos(pollInterval);
+		}
+		record(searchable, sw);
+	}
+
+}
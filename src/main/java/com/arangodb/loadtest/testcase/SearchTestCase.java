@@ -0,0 +1,91 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.DatabaseSetupUtils;
+import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.Vocabulary;
+import com.arangodb.model.AqlQueryOptions;
+import com.arangodb.util.MapBuilder;
+
+/**
+ * Searches the large String fields of the documents in the view of option 'docView' for words of the vocabulary of
+ * the documents (option 'docVocabulary'), which are chosen with the same Zipfian distribution as the words of the
+ * documents. Test case 'search_tokens' matches the documents containing any of the words, test case 'search_phrase'
+ * the documents containing the words in the given order (option 'searchTerms'). The matches are sorted by relevance
+ * (BM25) and limited to the best ones (option 'searchLimit'). The number of returned documents is recorded as result
+ * size.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class SearchTestCase extends ArangoTestCase {
+
+	private final AqlQueryOptions queryOptions;
+	private final ArangoDatabase db;
+	private final String query;
+	private final Vocabulary vocabulary;
+	private final SplittableRandom random;
+	private String text;
+
+	/**
+	 * @param test
+	 *            {@link TestCase#SEARCH_TOKENS} or {@link TestCase#SEARCH_PHRASE}
+	 */
+	public SearchTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder, final TestCase test) {
+		super(builder, options, num, recorder);
+		db = arango.db(options.getDatabase());
+		vocabulary = Vocabulary.get(options.getDocVocabulary());
+		random = new SplittableRandom();
+		final String analyzer = "'" + DatabaseSetupUtils.VIEW_ANALYZER + "'";
+		final String condition = IntStream.range(0, options.getDocNumLargeSimple())
+				.mapToObj(i -> "d." + DocumentCreator.FIELD_LARGE + i)
+				.map(field -> test == TestCase.SEARCH_PHRASE ? "PHRASE(" + field + ", @text, " + analyzer + ")"
+						: "ANALYZER(" + field + " IN TOKENS(@text, " + analyzer + "), " + analyzer + ")")
+				.collect(Collectors.joining(" OR "));
+		query = "FOR d IN " + DatabaseSetupUtils.VIEW + " SEARCH " + condition
+				+ " SORT BM25(d) DESC LIMIT @limit RETURN d._key";
+		queryOptions = new AqlQueryOptions().batchSize(options.getSearchLimit());
+	}
+
+	@Override
+	protected void _prepare() {
+		text = vocabulary.words(random, options.getSearchTerms());
+	}
+
+	@Override
+	protected void _run() throws ArangoDBException {
+		recorder.recordResultSize(TraversalTestCase.count(db.query(query,
+			new MapBuilder().put("text", text).put("limit", options.getSearchLimit()).get(), queryOptions,
+			String.class)));
+	}
+
+}
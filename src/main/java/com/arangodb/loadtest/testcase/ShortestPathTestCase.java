@@ -0,0 +1,90 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.util.List;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.KeyGen;
+import com.arangodb.model.AqlQueryOptions;
+import com.arangodb.util.MapBuilder;
+
+/**
+ * Searches the shortest path (test case 'shortest_path') or the shortest paths (test case 'k_shortest_paths', option
+ * 'kPaths') between two vertices of the graph (option 'graph'), following the edges in both directions. Both vertices
+ * are chosen out of the key space of the vertices like the keys of test case 'vertex_get'. The number of vertices of
+ * the shortest path, respectively the number of paths, is recorded as result size. Vertices without a path between
+ * them are not an error.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class ShortestPathTestCase extends ArangoTestCase {
+
+	private final AqlQueryOptions queryOptions;
+	private final ArangoDatabase db;
+	private final String query;
+	private final String vertexCollection;
+	private final boolean kPaths;
+	private final KeyGen keyGen;
+	private List<String> keys;
+
+	/**
+	 * @param test
+	 *            {@link TestCase#SHORTEST_PATH} or {@link TestCase#K_SHORTEST_PATHS}
+	 */
+	public ShortestPathTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder, final KeyGen keyGen, final TestCase test) {
+		super(builder, options, num, recorder);
+		this.keyGen = keyGen;
+		db = arango.db(options.getDatabase());
+		vertexCollection = options.getVertexCollection();
+		kPaths = test == TestCase.K_SHORTEST_PATHS;
+		query = kPaths
+				? "FOR p IN ANY K_SHORTEST_PATHS @start TO @target GRAPH @graph LIMIT @paths RETURN LENGTH(p.edges)"
+				: "FOR v IN ANY SHORTEST_PATH @start TO @target GRAPH @graph RETURN v._key";
+		queryOptions = new AqlQueryOptions().batchSize(options.getCursorBatchSize()).stream(options.getCursorStream());
+	}
+
+	@Override
+	protected void _prepare() {
+		keys = keyGen.selectKeys(2);
+	}
+
+	@Override
+	protected void _run() throws ArangoDBException {
+		if (options.getBatchSize() != 1) {
+			throw new IllegalArgumentException("'batchSize' not supported with shortest path test cases");
+		}
+		final MapBuilder bindVars = new MapBuilder().put("start", vertexCollection + "/" + keys.get(0))
+				.put("target", vertexCollection + "/" + keys.get(1)).put("graph", options.getGraph());
+		if (kPaths) {
+			bindVars.put("paths", options.getKPaths());
+		}
+		recorder.recordResultSize(
+			TraversalTestCase.count(db.query(query, bindVars.get(), queryOptions, Object.class)));
+	}
+
+}
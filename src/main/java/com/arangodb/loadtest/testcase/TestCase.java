@@ -35,6 +35,7 @@ public enum TestCase {
 	AQL_GET,
 	AQL_INSERT,
 	AQL_REPLACE,
+	AQL_CURSOR,
 	VERTEX_GET,
 	VERTEX_INSERT,
 	VERTEX_UPDATE,
@@ -42,5 +43,16 @@ public enum TestCase {
 	EDGE_GET,
 	EDGE_INSERT,
 	EDGE_UPDATE,
-	EDGE_REPLACE
+	EDGE_REPLACE,
+	TRAVERSAL_OUTBOUND,
+	TRAVERSAL_ANY,
+	SHORTEST_PATH,
+	K_SHORTEST_PATHS,
+	SEARCH_TOKENS,
+	SEARCH_PHRASE,
+	SEARCH_LAG,
+	INDEX_GET,
+	INDEX_RANGE,
+	INDEX_IN,
+	MIX
 }
@@ -0,0 +1,111 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.testcase;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.arangodb.ArangoCursor;
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.util.KeyGen;
+import com.arangodb.model.AqlQueryOptions;
+import com.arangodb.util.MapBuilder;
+
+/**
+ * Visits the vertices within a number of hops (option 'traversalDepth') of a start vertex of the graph (option
+ * 'graph'), following the outgoing edges (test case 'traversal_outbound') or the edges in both directions (test case
+ * 'traversal_any'). Every vertex is visited once (breadth-first search with global vertex uniqueness). The start
+ * vertices are chosen out of the key space of the vertices like the keys of test case 'vertex_get'. The number of
+ * visited vertices is recorded as result size.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class TraversalTestCase extends ArangoTestCase {
+
+	private final AqlQueryOptions queryOptions;
+	private final ArangoDatabase db;
+	private final String query;
+	private final String vertexCollection;
+	private final int depth;
+	private final KeyGen keyGen;
+	private List<String> keys;
+
+	/**
+	 * @param test
+	 *            {@link TestCase#TRAVERSAL_OUTBOUND} or {@link TestCase#TRAVERSAL_ANY}
+	 * @param depth
+	 *            the maximum number of hops from the start vertex
+	 */
+	public TraversalTestCase(final ArangoDB.Builder builder, final CliOptions options, final int num,
+		final LatencyRecorder recorder, final KeyGen keyGen, final TestCase test, final int depth) {
+		super(builder, options, num, recorder);
+		this.keyGen = keyGen;
+		this.depth = depth;
+		db = arango.db(options.getDatabase());
+		vertexCollection = options.getVertexCollection();
+		query = "FOR v IN 1..@depth " + (test == TestCase.TRAVERSAL_ANY ? "ANY" : "OUTBOUND")
+				+ " @start GRAPH @graph OPTIONS { bfs: true, uniqueVertices: 'global' } RETURN v._key";
+		queryOptions = new AqlQueryOptions().batchSize(options.getCursorBatchSize()).stream(options.getCursorStream());
+	}
+
+	@Override
+	protected void _prepare() {
+		keys = keyGen.selectKeys(1);
+	}
+
+	@Override
+	protected void _run() throws ArangoDBException {
+		if (options.getBatchSize() != 1) {
+			throw new IllegalArgumentException("'batchSize' not supported with graph traversal test cases");
+		}
+		final MapBuilder bindVars = new MapBuilder().put("depth", depth)
+				.put("start", vertexCollection + "/" + keys.get(0)).put("graph", options.getGraph());
+		recorder.recordResultSize(count(db.query(query, bindVars.get(), queryOptions, String.class)));
+	}
+
+	/**
+	 * Consumes the given cursor without keeping its elements.
+	 *
+	 * @return the number of elements
+	 */
+	static long count(final ArangoCursor<?> cursor) {
+		long count = 0;
+		try {
+			while (cursor.hasNext()) {
+				cursor.next();
+				count++;
+			}
+		} finally {
+			try {
+				cursor.close();
+			} catch (final IOException e) {
+				throw new ArangoDBException(e);
+			}
+		}
+		return count;
+	}
+
+}
@@ -36,8 +36,10 @@ import com.arangodb.ArangoDB.Builder;
 import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.ArangoGraph;
-import com.arangodb.entity.BaseDocument;
+import com.arangodb.ArangoSearch;
 import com.arangodb.entity.EdgeDefinition;
+import com.arangodb.entity.arangosearch.CollectionLink;
+import com.arangodb.entity.arangosearch.FieldLink;
 import com.arangodb.loadtest.cli.CliOptions;
 import com.arangodb.loadtest.cli.Index;
 import com.arangodb.loadtest.testcase.TestCase;
@@ -49,8 +51,6 @@ import com.arangodb.model.HashIndexOptions;
 import com.arangodb.model.PersistentIndexOptions;
 import com.arangodb.model.SkiplistIndexOptions;
 import com.arangodb.model.arangosearch.ArangoSearchCreateOptions;
-import com.arangodb.entity.arangosearch.FieldLink;
-import com.arangodb.entity.arangosearch.CollectionLink;
 
 /**
  * @author Mark Vollmary
@@ -58,6 +58,16 @@ import com.arangodb.entity.arangosearch.CollectionLink;
  */
 public class DatabaseSetupUtils {
 
+	/**
+	 * The name of the view of option 'docView'
+	 */
+	public static final String VIEW = "MySearch";
+
+	/**
+	 * The analyzer of the large String fields in the view of option 'docView'
+	 */
+	public static final String VIEW_ANALYZER = "text_en";
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseSetupUtils.class);
 
 	private DatabaseSetupUtils() {
@@ -100,7 +110,8 @@ public class DatabaseSetupUtils {
 
 		final Collection<TestCase> testCaseRequireGraph = Arrays.asList(TestCase.VERTEX_GET, TestCase.VERTEX_INSERT,
 			TestCase.VERTEX_REPLACE, TestCase.VERTEX_UPDATE, TestCase.EDGE_GET, TestCase.EDGE_INSERT,
-			TestCase.EDGE_REPLACE, TestCase.EDGE_UPDATE, TestCase.AQL_CUSTOM);
+			TestCase.EDGE_REPLACE, TestCase.EDGE_UPDATE, TestCase.AQL_CUSTOM, TestCase.TRAVERSAL_OUTBOUND,
+			TestCase.TRAVERSAL_ANY, TestCase.SHORTEST_PATH, TestCase.K_SHORTEST_PATHS);
 		final boolean requireGraph = tests.stream().anyMatch(test -> testCaseRequireGraph.contains(test));
 
 		if (requireGraph) {
@@ -118,15 +129,6 @@ public class DatabaseSetupUtils {
 					LOGGER.error(String.format("Failed to create graph %s", graph.name()));
 				}
 			}
-            if (db.collection(options.getVertexCollection()).exists()) {
-                // create dummy vertex for edge tests
-                try {
-                    db.collection(options.getVertexCollection()).insertDocument(new BaseDocument("dummy"));
-                } catch (final Exception e) {
-                    // This is not an error if the vertex exists already.
-                    LOGGER.error(String.format("Cannot insert dummy vertex."));
-                }
-            }
 		}
 
     try {
@@ -141,28 +143,45 @@ public class DatabaseSetupUtils {
            DocumentCreator.FIELD_ARRAY);
          createIndex(options, colHandle, options.getDocIndexObjects(), options.getDocNumIndexObjects(),
            DocumentCreator.FIELD_OBJECT);
-         createView(options, db, colHandle, options.getDocView(), DocumentCreator.FIELD_LARGE);
        });
     } catch (Exception e) {
       LOGGER.error("There was an error in index creation:");
       LOGGER.error(e.toString());
     }
 
+		if (options.getDocView()) {
+			final ArangoSearch view = db.arangoSearch(VIEW);
+			try {
+				if (!view.exists()) {
+					createView(options, view);
+				}
+			} catch (final Exception e) {
+				if (!view.exists()) {
+					LOGGER.error(String.format("Failed to create view %s", view.name()));
+				}
+			}
+		}
+
 		arangoDB.shutdown();
 	}
 
-  private static void createView(
-		final CliOptions options,
-    final ArangoDatabase db,
-		final ArangoCollection colHandle,
-    final boolean viewForField,
-		final String field) {
-    if (viewForField) {
-      ArangoSearchCreateOptions opts = new ArangoSearchCreateOptions();
-      opts.link(CollectionLink.on(colHandle.name()).fields(FieldLink.on(field)));
-      db.createArangoSearch("MySearch", opts);
-    }
-  }
+	/**
+	 * Creates the view of option 'docView', which links the large String fields of the documents with analyzer
+	 * {@value #VIEW_ANALYZER} and the document keys with the default analyzer (identity).
+	 */
+	private static void createView(final CliOptions options, final ArangoSearch view) {
+		final FieldLink[] fields = Stream
+				.concat(IntStream.range(0, options.getDocNumLargeSimple())
+						.mapToObj(i -> FieldLink.on(DocumentCreator.FIELD_LARGE + i).analyzers(VIEW_ANALYZER)),
+					Stream.of(FieldLink.on("_key")))
+				.toArray(FieldLink[]::new);
+		final ArangoSearchCreateOptions viewOptions = new ArangoSearchCreateOptions()
+				.link(CollectionLink.on(options.getCollection()).fields(fields));
+		if (options.getDocViewConsolidationInterval() > 0) {
+			viewOptions.consolidationIntervalMsec(options.getDocViewConsolidationInterval().longValue());
+		}
+		view.create(viewOptions);
+	}
 
 	private static void createIndex(
 		final CliOptions options,
@@ -0,0 +1,347 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.arangodb.entity.DocumentField;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.velocypack.VPack;
+import com.arangodb.velocypack.VPackSlice;
+
+/**
+ * A file of documents serialized to VelocyPack (command 'dataset', option 'dataset'), so that repeated runs and
+ * different clients send byte-identical documents without generating them.
+ * <p>
+ * File format (big-endian): magic number, version, number of documents n, n + 1 offsets of the documents from the
+ * start of the file, followed by the documents. A document is stored as the number of its attributes followed by its
+ * attributes (name and value), which are the members of a compact VelocyPack object. The payload of a document is
+ * built by copying its attributes out of the memory-mapped file behind the document key, which needs neither
+ * deserialization nor an index table.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class Dataset {
+
+	/**
+	 * Returns the payloads of the documents of a {@link Dataset}, one after another, starting with the document of the
+	 * client the instance was created for. Not thread safe.
+	 */
+	public class Payloads {
+
+		private final ByteBuffer documents;
+		private final List<VPackSlice> payloads;
+		private byte[][] buffers;
+		private VPackSlice[] slices;
+		private int next;
+
+		private Payloads(final int first) {
+			super();
+			documents = mapped.duplicate();
+			payloads = new ArrayList<>();
+			buffers = new byte[0][];
+			slices = new VPackSlice[0];
+			next = first;
+		}
+
+		/**
+		 * Returns the next documents with the given keys. The returned list and its slices are reused by the next
+		 * call.
+		 */
+		public List<VPackSlice> create(final Collection<String> keys) {
+			if (buffers.length < keys.size()) {
+				buffers = Arrays.copyOf(buffers, keys.size());
+				slices = Arrays.copyOf(slices, keys.size());
+			}
+			payloads.clear();
+			int i = 0;
+			for (final String key : keys) {
+				final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+				final int document = nextDocument();
+				final int size = payloadSize(document, keyBytes.length);
+				if (buffers[i] == null || buffers[i].length < size) {
+					buffers[i] = new byte[size];
+					slices[i] = new VPackSlice(buffers[i]);
+				}
+				putPayload(document, keyBytes, size, buffers[i]);
+				payloads.add(slices[i++]);
+			}
+			return payloads;
+		}
+
+		/**
+		 * Returns copies of the next documents with the given keys. Used for asynchronous operations, where the driver
+		 * may still read a payload after the next operation already started.
+		 */
+		public List<VPackSlice> createDetached(final Collection<String> keys) {
+			final List<VPackSlice> payloads = new ArrayList<>(keys.size());
+			for (final String key : keys) {
+				final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+				final int document = nextDocument();
+				final int size = payloadSize(document, keyBytes.length);
+				final byte[] payload = new byte[size];
+				putPayload(document, keyBytes, size, payload);
+				payloads.add(new VPackSlice(payload));
+			}
+			return payloads;
+		}
+
+		private int nextDocument() {
+			final int document = next;
+			next = next + 1 < size ? next + 1 : 0;
+			return document;
+		}
+
+		private int payloadSize(final int document, final int keyLength) {
+			final int members = KEY_ATTRIBUTE.length + stringSize(keyLength) + attributesLength(document);
+			final int items = varUIntSize(mapped.getInt(offset(document)) + 1);
+			int size = 1 + 1 + members + items;
+			while (1 + varUIntSize(size) + members + items != size) {
+				size = 1 + varUIntSize(size) + members + items;
+			}
+			return size;
+		}
+
+		/**
+		 * Writes the document as compact object: head, byte length, attributes and the number of attributes.
+		 */
+		private void putPayload(final int document, final byte[] key, final int size, final byte[] payload) {
+			int position = 0;
+			payload[position++] = COMPACT_OBJECT;
+			position = putVarUInt(payload, position, size);
+			System.arraycopy(KEY_ATTRIBUTE, 0, payload, position, KEY_ATTRIBUTE.length);
+			position = putString(payload, position + KEY_ATTRIBUTE.length, key);
+			final int offset = offset(document);
+			final int length = attributesLength(document);
+			documents.position(offset + Integer.BYTES);
+			documents.get(payload, position, length);
+			position += length;
+			int items = mapped.getInt(offset) + 1;
+			for (int i = position + varUIntSize(items) - 1; i >= position; i--) {
+				payload[i] = (byte) (items >= 0x80 ? items & 0x7f | 0x80 : items);
+				items >>>= 7;
+			}
+		}
+
+	}
+
+	public static final String FILE_EXTENSION = ".vpack";
+
+	private static final int MAGIC = 0x4c544453;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 3 * Integer.BYTES;
+	private static final byte COMPACT_OBJECT = 0x14;
+	private static final byte SHORT_STRING = 0x40;
+	private static final byte LONG_STRING = (byte) 0xbf;
+	private static final int MAX_SHORT_STRING = 126;
+	private static final byte[] KEY_ATTRIBUTE = string(DocumentField.Type.KEY.getSerializeName());
+	private static final Map<String, Dataset> OPEN = new ConcurrentHashMap<>();
+
+	private final MappedByteBuffer mapped;
+	private final int size;
+
+	private Dataset(final MappedByteBuffer mapped) {
+		super();
+		this.mapped = mapped;
+		size = mapped.getInt(2 * Integer.BYTES);
+	}
+
+	/**
+	 * Writes a dataset of the given number of documents, created according to the document options (e.g.
+	 * 'docNumSimple').
+	 */
+	public static void write(final Path path, final CliOptions options, final int documents) throws IOException {
+		final DocumentCreator documentCreator = new DocumentCreator(options, 0, 1, 0, null);
+		final VPack vpack = new VPack.Builder().build();
+		final long[] offsets = new long[documents + 1];
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING)) {
+			final long first = HEADER_SIZE + (long) Integer.BYTES * offsets.length;
+			channel.position(first);
+			final DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(channel)));
+			long offset = first;
+			for (int i = 0; i < documents; i++) {
+				offsets[i] = offset;
+				final VPackSlice document = vpack.serialize(documentCreator.createContent());
+				out.writeInt(document.size());
+				offset += Integer.BYTES;
+				for (final Iterator<Entry<String, VPackSlice>> iterator = document.objectIterator(); iterator
+						.hasNext();) {
+					final Entry<String, VPackSlice> attribute = iterator.next();
+					final byte[] name = string(attribute.getKey());
+					final VPackSlice value = attribute.getValue();
+					out.write(name);
+					out.write(value.getBuffer(), value.getStart(), value.getByteSize());
+					offset += name.length + value.getByteSize();
+				}
+			}
+			offsets[documents] = offset;
+			out.flush();
+			if (offset > Integer.MAX_VALUE) {
+				throw new IOException(String.format("Dataset %s exceeds 2 GB, create fewer documents", path));
+			}
+			final ByteBuffer header = ByteBuffer.allocate((int) first);
+			header.putInt(MAGIC).putInt(VERSION).putInt(documents);
+			for (final long o : offsets) {
+				header.putInt((int) o);
+			}
+			header.flip();
+			channel.write(header, 0);
+		}
+	}
+
+	/**
+	 * Maps the given dataset into memory. Every dataset is mapped only once per process.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the file can't be read or is no dataset
+	 */
+	public static Dataset open(final String path) {
+		return OPEN.computeIfAbsent(path, p -> {
+			try (RandomAccessFile file = new RandomAccessFile(p, "r")) {
+				final MappedByteBuffer mapped = file.getChannel().map(MapMode.READ_ONLY, 0, file.length());
+				if (file.length() < HEADER_SIZE || mapped.getInt(0) != MAGIC || mapped.getInt(Integer.BYTES) != VERSION) {
+					throw new IllegalArgumentException(String.format("%s is no dataset of version %s", p, VERSION));
+				}
+				return new Dataset(mapped);
+			} catch (final IOException e) {
+				throw new IllegalArgumentException(String.format("Failed to open dataset %s: %s", p, e.getMessage()));
+			}
+		});
+	}
+
+	/**
+	 * @return the number of documents
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Creates the payloads for the client with the given number. The clients start with documents spread evenly over
+	 * the dataset, so that the same clients send the same documents in every run, no matter in which order they are
+	 * created.
+	 *
+	 * @param num
+	 *            the number of the client
+	 * @param threads
+	 *            the number of clients, over which the documents are spread
+	 */
+	public Payloads payloads(final int num, final int threads) {
+		return payloads(num, threads, 0);
+	}
+
+	/**
+	 * Creates the payloads for the client with the given number, starting with the document the client sends for its
+	 * key with the given index (option 'preload').
+	 *
+	 * @param num
+	 *            the number of the client
+	 * @param threads
+	 *            the number of clients, over which the documents are spread
+	 * @param firstIndex
+	 *            the index of the first key of the client the payloads are created for
+	 */
+	public Payloads payloads(final int num, final int threads, final long firstIndex) {
+		final int stride = Math.max(1, size / Math.max(1, threads));
+		return new Payloads((int) (((long) num * stride + firstIndex) % size));
+	}
+
+	private int offset(final int document) {
+		return mapped.getInt(HEADER_SIZE + document * Integer.BYTES);
+	}
+
+	private int attributesLength(final int document) {
+		return offset(document + 1) - offset(document) - Integer.BYTES;
+	}
+
+	private static byte[] string(final String value) {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		final byte[] string = new byte[stringSize(bytes.length)];
+		putString(string, 0, bytes);
+		return string;
+	}
+
+	private static int stringSize(final int length) {
+		return length <= MAX_SHORT_STRING ? 1 + length : 1 + Long.BYTES + length;
+	}
+
+	/**
+	 * @return the position after the string
+	 */
+	private static int putString(final byte[] buffer, final int position, final byte[] bytes) {
+		int p = position;
+		if (bytes.length <= MAX_SHORT_STRING) {
+			buffer[p++] = (byte) (SHORT_STRING + bytes.length);
+		} else {
+			buffer[p++] = LONG_STRING;
+			for (int i = 0; i < Long.BYTES; i++) {
+				buffer[p++] = (byte) ((long) bytes.length >>> (8 * i));
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, p, bytes.length);
+		return p + bytes.length;
+	}
+
+	private static int varUIntSize(final int value) {
+		int size = 1;
+		for (int v = value; v >= 0x80; v >>>= 7) {
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * @return the position after the value
+	 */
+	private static int putVarUInt(final byte[] buffer, final int position, final int value) {
+		int p = position;
+		int v = value;
+		while (v >= 0x80) {
+			buffer[p++] = (byte) (v & 0x7f | 0x80);
+			v >>>= 7;
+		}
+		buffer[p++] = (byte) v;
+		return p;
+	}
+
+}
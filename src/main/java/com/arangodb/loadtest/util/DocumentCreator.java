@@ -20,11 +20,13 @@
 
 package com.arangodb.loadtest.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -34,6 +36,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.entity.BaseEdgeDocument;
 import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.velocypack.VPackSlice;
 
 /**
  * @author Mark Vollmary
@@ -48,15 +51,60 @@ public class DocumentCreator {
 
 	private final List<BaseDocument> cache;
 	private final List<BaseEdgeDocument> edgeCache;
+	private final PayloadPool payloadPool;
+	private final Dataset.Payloads datasetPayloads;
 	private final CliOptions options;
+	private final int threads;
+	private final Vocabulary vocabulary;
+	private final SplittableRandom random;
+	private GraphGenerator graph;
+
+	/**
+	 * @param num
+	 *            the number of the client the documents are created for
+	 * @param threads
+	 *            the number of clients the key space was created for (see {@link KeyGen})
+	 */
+	public DocumentCreator(final CliOptions options, final int num, final int threads) {
+		this(options, num, threads, options.getBatchSize(), null);
+	}
 
-	public DocumentCreator(final CliOptions options) {
+	/**
+	 * @param num
+	 *            the number of the client the documents are created for, which picks the first document of option
+	 *            'dataset'
+	 * @param threads
+	 *            the number of clients the key space was created for (see {@link KeyGen})
+	 * @param batchSize
+	 *            the maximum number of documents created at once
+	 * @param graph
+	 *            connects the edges to the vertices, {@code null} for the vertices of the key space of the test case
+	 */
+	public DocumentCreator(final CliOptions options, final int num, final int threads, final int batchSize,
+		final GraphGenerator graph) {
 		super();
 		this.options = options;
-		cache = Stream.generate(() -> createObject(0)).limit(options.getBatchSize()).map(obj -> new BaseDocument(obj))
+		this.threads = threads;
+		this.graph = graph;
+		vocabulary = options.getDocView() ? Vocabulary.get(options.getDocVocabulary()) : null;
+		random = new SplittableRandom();
+		cache = Stream.generate(() -> createObject(0)).limit(batchSize).map(obj -> new BaseDocument(obj))
+				.collect(Collectors.toList());
+		edgeCache = Stream.generate(() -> createObject(0)).limit(batchSize).map(obj -> new BaseEdgeDocument(obj))
 				.collect(Collectors.toList());
-		edgeCache = Stream.generate(() -> createEdge()).limit(options.getBatchSize())
-				.map(obj -> new BaseEdgeDocument(obj)).collect(Collectors.toList());
+		datasetPayloads = options.getDataset() != null
+				? Dataset.open(options.getDataset()).payloads(num, threads)
+				: null;
+		payloadPool = options.getDocPayloadPool() && datasetPayloads == null
+				? new PayloadPool(cache.stream().map(BaseDocument::getProperties).collect(Collectors.toList()))
+				: null;
+	}
+
+	/**
+	 * @return the content of a new document, without key
+	 */
+	Map<String, Object> createContent() {
+		return createObject(0);
 	}
 
 	private void createSimple(final Map<String, Object> doc) {
@@ -65,9 +113,14 @@ public class DocumentCreator {
 				.forEach(s -> doc.put(FIELD_SIMPLE + i.getAndIncrement(), s));
 	}
 
+	/**
+	 * With option 'docView' the large String fields contain text of the words of the {@link Vocabulary}, which is
+	 * searched by the search test cases.
+	 */
 	private void createLargeSimple(final Map<String, Object> doc) {
 		final AtomicInteger i = new AtomicInteger(0);
-		Stream.generate(() -> createString(options.getDocLargeSimpleSize())).limit(options.getDocNumLargeSimple())
+		Stream.generate(() -> vocabulary != null ? vocabulary.text(random, options.getDocLargeSimpleSize())
+				: createString(options.getDocLargeSimpleSize())).limit(options.getDocNumLargeSimple())
 				.forEach(s -> doc.put(FIELD_LARGE + i.getAndIncrement(), s));
 	}
 
@@ -94,13 +147,6 @@ public class DocumentCreator {
 		return doc;
 	}
 
-	private Map<String, Object> createEdge() {
-		final Map<String, Object> edge = createObject(0);
-		edge.put("_from", options.getVertexCollection() + "/dummy");
-		edge.put("_to", options.getVertexCollection() + "/dummy");
-		return edge;
-	}
-
 	private static String createString(final int size) {
 		return RandomStringUtils.random(size, false, true);
 	}
@@ -110,15 +156,70 @@ public class DocumentCreator {
 	}
 
 	public List<BaseDocument> create(final Collection<String> keys) {
+		final List<BaseDocument> documents = keys.size() == cache.size() ? cache : cache.subList(0, keys.size());
 		final Iterator<String> iterator = keys.iterator();
-		cache.forEach(e -> e.setKey(iterator.next()));
-		return cache;
+		documents.forEach(e -> {
+			if (options.getDocUnique()) {
+				e.setProperties(createObject(0));
+			}
+			e.setKey(iterator.next());
+		});
+		return documents;
+	}
+
+	/**
+	 * Creates new document instances, which share their content with the cached documents. Used for asynchronous
+	 * operations, where the driver writes the meta data of the response (_id, _rev) into the document after the next
+	 * operation already started.
+	 */
+	public List<BaseDocument> createDetached(final Collection<String> keys) {
+		final List<BaseDocument> documents = new ArrayList<>(keys.size());
+		final Iterator<BaseDocument> iterator = cache.iterator();
+		for (final String key : keys) {
+			final BaseDocument document = new BaseDocument(
+					options.getDocUnique() ? createObject(0) : iterator.next().getProperties());
+			document.setKey(key);
+			documents.add(document);
+		}
+		return documents;
+	}
+
+	/**
+	 * Creates the documents with the given keys, pre-serialized to VelocyPack (option 'docPayloadPool'). With option
+	 * 'dataset' the documents are taken from the dataset. The returned list is reused by the next call.
+	 */
+	public List<VPackSlice> createSerialized(final Collection<String> keys) {
+		return datasetPayloads != null ? datasetPayloads.create(keys) : payloadPool.create(keys);
 	}
 
+	/**
+	 * Like {@link #createSerialized(Collection)}, but for asynchronous operations (see
+	 * {@link #createDetached(Collection)}).
+	 */
+	public List<VPackSlice> createSerializedDetached(final Collection<String> keys) {
+		return datasetPayloads != null ? datasetPayloads.createDetached(keys) : payloadPool.createDetached(keys);
+	}
+
+	/**
+	 * Creates the edges with the given keys, connected to the vertices by a {@link GraphGenerator}. Without a given
+	 * generator the edges connect the vertices imported for the threads of the key space (see
+	 * {@link PreloadUtils#preloadVertices}). The returned list is reused by the next call.
+	 */
 	public List<BaseEdgeDocument> createEdge(final Collection<String> keys) {
+		if (graph == null) {
+			graph = new GraphGenerator(options, threads, GraphGenerator.keysPerThread(options));
+		}
+		final List<BaseEdgeDocument> documents = keys.size() == edgeCache.size() ? edgeCache
+				: edgeCache.subList(0, keys.size());
 		final Iterator<String> iterator = keys.iterator();
-		edgeCache.forEach(e -> e.setKey(iterator.next()));
-		return edgeCache;
+		documents.forEach(e -> {
+			if (options.getDocUnique()) {
+				e.setProperties(createObject(0));
+			}
+			e.setKey(iterator.next());
+			graph.connect(e);
+		});
+		return documents;
 	}
 
 }
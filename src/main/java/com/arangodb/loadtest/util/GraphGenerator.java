@@ -0,0 +1,190 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.util.SplittableRandom;
+
+import com.arangodb.entity.BaseEdgeDocument;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.cli.GraphModel;
+
+/**
+ * Connects the edges of the edge test cases to the vertices of the vertex test cases, so that the graph can be
+ * traversed. The vertices are the documents of the key space, whose keys have the same prefix ([keyPrefix-]run-) as
+ * the key of the edge. Like the keys of the documents (see {@link KeyGen}) the vertices and the edges are numbered
+ * across the threads (index * threads + thread). The endpoints depend on the option 'graphModel':
+ * <ul>
+ * <li>zipfian: the source is chosen uniformly, the target with a Zipfian distribution (option 'zipfianTheta'), which
+ * gives a few vertices a lot of incoming edges and most of them only a few.</li>
+ * <li>rmat: recursive matrix (Chakrabarti et al., "R-MAT: A Recursive Model for Graph Mining", with the parameters of
+ * the Graph500 benchmark). Every edge falls recursively into one of the quadrants of the adjacency matrix, which gives
+ * power-law in- and out-degrees and a community structure.</li>
+ * <li>barabasi_albert: preferential attachment (Barabasi and Albert, "Emergence of Scaling in Random Networks"). Edge e
+ * belongs to vertex e / d (option 'graphDegree') and attaches it to an endpoint of a uniformly chosen earlier edge,
+ * which picks the earlier vertices in proportion to their degree.</li>
+ * </ul>
+ * <p>
+ * The endpoints only depend on the number of the edge, so the edges are connected the same way by every test case and
+ * every run of the insert, update, replace and preload of the edges. The graph is never held in memory, the earlier
+ * edges of preferential attachment are generated again when needed.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class GraphGenerator {
+
+	private static final double RMAT_A = 0.57;
+	private static final double RMAT_B = 0.19;
+	private static final double RMAT_C = 0.19;
+	private static final int RMAT_ATTEMPTS = 16;
+
+	private final GraphModel model;
+	private final String vertexCollection;
+	private final int threads;
+	private final long vertices;
+	private final int degree;
+	private final int levels;
+	private final KeyChooser sources;
+	private final KeyChooser targets;
+	private final StringBuilder buffer;
+	private long source;
+	private long target;
+
+	/**
+	 * @param threads
+	 *            the number of threads which inserted the vertices and the edges
+	 * @param keysPerThread
+	 *            the number of vertices per thread
+	 */
+	public GraphGenerator(final CliOptions options, final int threads, final long keysPerThread) {
+		super();
+		vertices = threads * keysPerThread;
+		if (vertices <= 0) {
+			throw new IllegalArgumentException("The key space of the vertices is empty, set option 'keySpace'");
+		}
+		model = options.getGraphModel();
+		vertexCollection = options.getVertexCollection();
+		this.threads = threads;
+		degree = options.getGraphDegree();
+		levels = 64 - Long.numberOfLeadingZeros(vertices - 1);
+		sources = model == GraphModel.ZIPFIAN ? KeyChooser.uniform(vertices) : null;
+		targets = model == GraphModel.ZIPFIAN ? KeyChooser.zipfian(vertices, options.getZipfianTheta()) : null;
+		buffer = new StringBuilder();
+	}
+
+	/**
+	 * @return the number of vertices per thread of the edge test cases: option 'keySpace' or, if not set, the number of
+	 *         edges per thread (requests times batch size) divided by option 'graphDegree'
+	 */
+	public static long keysPerThread(final CliOptions options) {
+		return options.getKeySpace() > 0 ? options.getKeySpace()
+				: Math.max(1, KeyGen.keysPerThread(options) / options.getGraphDegree());
+	}
+
+	/**
+	 * Sets the source (_from) and the target (_to) of the given edge, whose key has to be set.
+	 */
+	public void connect(final BaseEdgeDocument edge) {
+		final String key = edge.getKey();
+		final int indexSeparator = key.lastIndexOf('-');
+		final int threadSeparator = key.lastIndexOf('-', indexSeparator - 1);
+		final long index = Long.parseLong(key.substring(indexSeparator + 1));
+		final int thread = Integer.parseInt(key.substring(threadSeparator + 1, indexSeparator));
+		generate(index * threads + thread);
+		if (target == source) {
+			target = (target + 1) % vertices;
+		}
+		edge.setFrom(vertex(key, threadSeparator + 1, source));
+		edge.setTo(vertex(key, threadSeparator + 1, target));
+	}
+
+	/**
+	 * Sets {@link #source} and {@link #target} of the given edge.
+	 */
+	private void generate(final long edge) {
+		switch (model) {
+		case RMAT:
+			generateRmat(edge);
+			break;
+		case BARABASI_ALBERT:
+			source = edge / degree % vertices;
+			target = attach(edge);
+			break;
+		default:
+			final SplittableRandom random = new SplittableRandom(edge);
+			source = sources.next(random);
+			target = targets.next(random);
+			break;
+		}
+	}
+
+	private void generateRmat(final long edge) {
+		final SplittableRandom random = new SplittableRandom(edge);
+		for (int attempt = 0;; attempt++) {
+			long s = 0;
+			long t = 0;
+			for (int level = 0; level < levels; level++) {
+				final double p = random.nextDouble();
+				s <<= 1;
+				t <<= 1;
+				if (p >= RMAT_A + RMAT_B + RMAT_C) {
+					s |= 1;
+					t |= 1;
+				} else if (p >= RMAT_A + RMAT_B) {
+					s |= 1;
+				} else if (p >= RMAT_A) {
+					t |= 1;
+				}
+			}
+			// the matrix is rounded up to a power of two, the vertices beyond the key space are drawn again
+			if ((s < vertices && t < vertices) || attempt == RMAT_ATTEMPTS) {
+				source = s % vertices;
+				target = t % vertices;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the vertex the given edge attaches its source to: either endpoint of a uniformly chosen earlier edge. The
+	 *         target of the earlier edge is determined the same way, until a source is chosen.
+	 */
+	private long attach(final long edge) {
+		long e = edge;
+		while (e > 0) {
+			final SplittableRandom random = new SplittableRandom(e);
+			final long earlier = random.nextLong(e);
+			if (random.nextBoolean()) {
+				return earlier / degree % vertices;
+			}
+			e = earlier;
+		}
+		return 0;
+	}
+
+	private String vertex(final String key, final int prefixLength, final long item) {
+		buffer.setLength(0);
+		buffer.append(vertexCollection).append('/').append(key, 0, prefixLength).append(item % threads).append('-')
+				.append(item / threads);
+		return buffer.toString();
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBAsync;
+import com.arangodb.internal.net.AccessType;
+import com.arangodb.internal.net.Host;
+import com.arangodb.internal.net.HostDescription;
+import com.arangodb.internal.net.HostHandle;
+import com.arangodb.internal.net.HostHandler;
+import com.arangodb.internal.net.HostResolver;
+
+/**
+ * Keeps track of the host the driver sends the request of an operation to (option 'hostLatencies'). The builders wrap
+ * the host handler of the driver, which selects the host according to options 'loadBalancing' and 'acquireHostList'
+ * on the thread issuing the request, also for the asynchronous driver. The operation is issued within a {@link Scope},
+ * which keeps the selected host (the last one, if a redirect or failover selects another host), so that the host is
+ * carried with the operation to the thread which completes it.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class HostTracking {
+
+	public static class Builder extends ArangoDB.Builder {
+		@Override
+		protected HostHandler createHostHandler(final HostResolver hostResolver) {
+			return new TrackingHostHandler(super.createHostHandler(hostResolver));
+		}
+	}
+
+	public static class AsyncBuilder extends ArangoDBAsync.Builder {
+		@Override
+		protected HostHandler createHostHandler(final HostResolver hostResolver) {
+			return new TrackingHostHandler(super.createHostHandler(hostResolver));
+		}
+	}
+
+	/**
+	 * The host selected for the operation issued within the scope. Closing the scope ends the tracking on the current
+	 * thread, the selected host stays available.
+	 */
+	public static class Scope implements AutoCloseable {
+
+		private final Scope previous;
+		private volatile String host;
+
+		private Scope(final Scope previous) {
+			super();
+			this.previous = previous;
+		}
+
+		/**
+		 * @return the host (host:port) selected for the operation, {@code null} if the driver didn't select a host, e.g.
+		 *         because the operation failed before or the builder doesn't track hosts
+		 */
+		public String getHost() {
+			return host;
+		}
+
+		@Override
+		public void close() {
+			CURRENT.set(previous);
+		}
+	}
+
+	static class TrackingHostHandler implements HostHandler {
+
+		private final HostHandler handler;
+
+		public TrackingHostHandler(final HostHandler handler) {
+			super();
+			this.handler = handler;
+		}
+
+		@Override
+		public Host get(final HostHandle hostHandle, final AccessType accessType) {
+			final Host host = handler.get(hostHandle, accessType);
+			final Scope scope = CURRENT.get();
+			if (host != null && scope != null) {
+				scope.host = NAMES.computeIfAbsent(host.getDescription(), d -> d.getHost() + ":" + d.getPort());
+			}
+			return host;
+		}
+
+		@Override
+		public void success() {
+			handler.success();
+		}
+
+		@Override
+		public void fail() {
+			handler.fail();
+		}
+
+		@Override
+		public void reset() {
+			handler.reset();
+		}
+
+		@Override
+		public void confirm() {
+			handler.confirm();
+		}
+
+		@Override
+		public void close() throws IOException {
+			handler.close();
+		}
+
+		@Override
+		public void closeCurrentOnError() {
+			handler.closeCurrentOnError();
+		}
+	}
+
+	private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+	private static final Map<HostDescription, String> NAMES = new ConcurrentHashMap<>();
+
+	private HostTracking() {
+		super();
+	}
+
+	/**
+	 * Starts tracking the host of the operation the current thread issues next, until the returned scope is closed.
+	 */
+	public static Scope open() {
+		final Scope scope = new Scope(CURRENT.get());
+		CURRENT.set(scope);
+		return scope;
+	}
+
+}
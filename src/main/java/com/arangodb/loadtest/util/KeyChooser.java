@@ -0,0 +1,227 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.arangodb.loadtest.cli.CliOptions;
+
+/**
+ * Chooses items out of a key space of previously inserted documents, according to option 'keyDistribution'. An item
+ * is a number between 0 (the first inserted document) and the size of the key space (exclusive). The chooser holds no
+ * mutable state, every thread passes in its own random number generator.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public abstract class KeyChooser {
+
+	public static KeyChooser create(final CliOptions options, final long items) {
+		if (items <= 0) {
+			throw new IllegalArgumentException("The key space is empty, set option 'keySpace'");
+		}
+		switch (options.getKeyDistribution()) {
+		case UNIFORM:
+			return new Uniform(items);
+		case ZIPFIAN:
+			return new ScrambledZipfian(items, options.getZipfianTheta());
+		case HOTSPOT:
+			return new Hotspot(items, options.getHotspotKeyFraction(), options.getHotspotOpFraction());
+		case LATEST:
+			return new Latest(items, options.getZipfianTheta());
+		default:
+			throw new IllegalArgumentException(
+					String.format("Unsupported key distribution: %s", options.getKeyDistribution()));
+		}
+	}
+
+	/**
+	 * @return a chooser which picks every item with the same probability
+	 */
+	public static KeyChooser uniform(final long items) {
+		return new Uniform(items);
+	}
+
+	/**
+	 * @return a chooser with a power-law distribution, whose popular items are scattered over the key space
+	 */
+	public static KeyChooser zipfian(final long items, final double theta) {
+		return new ScrambledZipfian(items, theta);
+	}
+
+	protected final long items;
+
+	protected KeyChooser(final long items) {
+		super();
+		this.items = items;
+	}
+
+	public abstract long next(SplittableRandom random);
+
+	private static class Uniform extends KeyChooser {
+
+		public Uniform(final long items) {
+			super(items);
+		}
+
+		@Override
+		public long next(final SplittableRandom random) {
+			return random.nextLong(items);
+		}
+	}
+
+	/**
+	 * A fraction of the items (the hot set) receives a fraction of the operations, e.g. 20% of the items receive 80% of
+	 * the operations. The items within the hot set and the cold set are chosen uniformly.
+	 */
+	private static class Hotspot extends KeyChooser {
+
+		private final long hotItems;
+		private final double opFraction;
+
+		public Hotspot(final long items, final double keyFraction, final double opFraction) {
+			super(items);
+			if (keyFraction <= 0 || keyFraction > 1 || opFraction < 0 || opFraction > 1) {
+				throw new IllegalArgumentException(
+						"Options 'hotspotKeyFraction' (0, 1] and 'hotspotOpFraction' [0, 1] are out of range");
+			}
+			hotItems = Math.max(1, (long) (items * keyFraction));
+			this.opFraction = opFraction;
+		}
+
+		@Override
+		public long next(final SplittableRandom random) {
+			if (hotItems == items || random.nextDouble() < opFraction) {
+				return random.nextLong(hotItems);
+			}
+			return hotItems + random.nextLong(items - hotItems);
+		}
+	}
+
+	/**
+	 * Zipfian distribution after Gray et al., "Quickly Generating Billion-Record Synthetic Databases". Item 0 is the
+	 * most popular one.
+	 */
+	private static class Zipfian extends KeyChooser {
+
+		private static final int EXACT_ZETA_TERMS = 1000 * 1000;
+		private static final Map<String, Double> ZETA_CACHE = new ConcurrentHashMap<>();
+
+		private final double zetan;
+		private final double alpha;
+		private final double eta;
+		private final double half;
+
+		public Zipfian(final long items, final double theta) {
+			super(items);
+			if (theta <= 0 || theta >= 1) {
+				throw new IllegalArgumentException("Option 'zipfianTheta' has to be between 0 and 1 (exclusive)");
+			}
+			zetan = zeta(items, theta);
+			alpha = 1 / (1 - theta);
+			eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+			half = 1 + Math.pow(0.5, theta);
+		}
+
+		/**
+		 * The sum of 1/i^theta for i in [1, n]. Every worker creates its own chooser, so the result is cached. Above one
+		 * million terms the remainder of the sum is approximated by its integral, which is precise enough for key
+		 * spaces of billions of items and keeps the startup fast.
+		 */
+		private static double zeta(final long n, final double theta) {
+			return ZETA_CACHE.computeIfAbsent(n + ":" + theta, k -> {
+				final long exact = Math.min(n, EXACT_ZETA_TERMS);
+				double sum = 0;
+				for (long i = 1; i <= exact; i++) {
+					sum += 1 / Math.pow(i, theta);
+				}
+				if (n > exact) {
+					sum += (Math.pow(n + 0.5, 1 - theta) - Math.pow(exact + 0.5, 1 - theta)) / (1 - theta);
+				}
+				return sum;
+			});
+		}
+
+		@Override
+		public long next(final SplittableRandom random) {
+			final double u = random.nextDouble();
+			final double uz = u * zetan;
+			if (uz < 1) {
+				return 0;
+			}
+			if (uz < half) {
+				return 1;
+			}
+			return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+		}
+	}
+
+	/**
+	 * Zipfian distribution in which the popular items are scattered over the key space (and therefore over the
+	 * threads which inserted them) by hashing the rank of an item.
+	 */
+	private static class ScrambledZipfian extends KeyChooser {
+
+		private final Zipfian zipfian;
+
+		public ScrambledZipfian(final long items, final double theta) {
+			super(items);
+			zipfian = new Zipfian(items, theta);
+		}
+
+		@Override
+		public long next(final SplittableRandom random) {
+			return Long.remainderUnsigned(fnvHash64(zipfian.next(random)), items);
+		}
+
+		private static long fnvHash64(final long value) {
+			long hash = 0xCBF29CE484222325L;
+			long v = value;
+			for (int i = 0; i < 8; i++) {
+				hash ^= v & 0xff;
+				hash *= 0x100000001B3L;
+				v >>>= 8;
+			}
+			return hash;
+		}
+	}
+
+	/**
+	 * Zipfian distribution in which the most recently inserted items are the most popular ones.
+	 */
+	private static class Latest extends KeyChooser {
+
+		private final Zipfian zipfian;
+
+		public Latest(final long items, final double theta) {
+			super(items);
+			zipfian = new Zipfian(items, theta);
+		}
+
+		@Override
+		public long next(final SplittableRandom random) {
+			return items - 1 - zipfian.next(random);
+		}
+	}
+
+}
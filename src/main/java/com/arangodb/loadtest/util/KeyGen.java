@@ -1,61 +1,178 @@
-/*
- * DISCLAIMER
- *
- * Copyright 2017 ArangoDB GmbH, Cologne, Germany
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- *
- * Copyright holder is ArangoDB GmbH, Cologne, Germany
- */
-
-package com.arangodb.loadtest.util;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import com.arangodb.loadtest.cli.CliOptions;
-
-/**
- * @author Mark Vollmary
- *
- */
-public class KeyGen {
-
-	private final int num;
-	private final String keyPrefix;
-	private final int run;
-	private int index;
-
-	public KeyGen(final CliOptions options, final int num, final int run) {
-		super();
-		this.num = num;
-		this.run = run;
-		keyPrefix = options.getKeyPrefix();
-		index = 0;
-	}
-
-	public List<String> generateKeys(final int quantity) {
-		final List<String> keys = new ArrayList<>(quantity);
-		for (int i = 0; i < quantity; i++) {
-			final String key;
-			if (keyPrefix != null) {
-				key = String.format("%s-%s-%s-%s", keyPrefix, run, num, index++);
-			} else {
-				key = String.format("%s-%s-%s", run, num, index++);
-			}
-			keys.add(key);
-		}
-		return keys;
-	}
-
-}
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.cli.KeyDistribution;
+
+/**
+ * Generates the document keys of a thread (format: [keyPrefix-]run-thread[-operation]-index). The key is built in a
+ * reusable char buffer in which the index is incremented in place, so that generating a key only allocates the key
+ * itself.
+ * <p>
+ * Operations on existing documents select their keys with {@link #selectKeys(int)}. By default these are the keys the
+ * thread inserted, in the same order. With option 'keyDistribution' the keys are chosen from the keys of all threads,
+ * whereby the key space is the number of threads (with option 'ramp' the highest one) times the keys per thread
+ * (option 'keySpace', by default the number of requests times the batch size).
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class KeyGen {
+
+	private static final int MAX_DIGITS = 19;
+
+	private final char[] buffer;
+	private final int prefixLength;
+	private final List<String> keys;
+	private int digits;
+	private final int threads;
+	private final KeyChooser chooser;
+	private final SplittableRandom random;
+	private final char[] selectBuffer;
+	private final int selectPrefixLength;
+
+	public KeyGen(final CliOptions options, final int num, final int run) {
+		this(options, num, run, 0);
+	}
+
+	/**
+	 * @param firstIndex
+	 *            index of the first key generated by {@link #generateKeys(int)}
+	 */
+	public KeyGen(final CliOptions options, final int num, final int run, final long firstIndex) {
+		this(options, num, run, options.getThreads(), firstIndex, null);
+	}
+
+	/**
+	 * @param threads
+	 *            the number of threads the key space was created for, the highest number of threads of option 'ramp'
+	 * @param firstIndex
+	 *            index of the first key generated by {@link #generateKeys(int)}
+	 * @param operation
+	 *            part of the generated keys which tells apart the keys of several inserting operations of a thread
+	 *            (option 'mix'), {@code null} for none
+	 */
+	public KeyGen(final CliOptions options, final int num, final int run, final int threads, final long firstIndex,
+		final String operation) {
+		super();
+		final String keyPrefix = options.getKeyPrefix();
+		final String prefix = (keyPrefix != null ? keyPrefix + "-" : "") + run + "-" + num + "-"
+				+ (operation != null ? operation + "-" : "");
+		prefixLength = prefix.length();
+		buffer = new char[prefixLength + MAX_DIGITS];
+		prefix.getChars(0, prefixLength, buffer, 0);
+		digits = putDigits(buffer, prefixLength, firstIndex) - prefixLength;
+		keys = new ArrayList<>();
+		final KeyDistribution distribution = options.getKeyDistribution();
+		if (distribution != null && distribution != KeyDistribution.SEQUENTIAL) {
+			this.threads = threads;
+			chooser = KeyChooser.create(options, keysPerThread(options) * threads);
+			random = new SplittableRandom();
+			final String selectPrefix = (keyPrefix != null ? keyPrefix + "-" : "") + run + "-";
+			selectPrefixLength = selectPrefix.length();
+			selectBuffer = new char[selectPrefixLength + 2 * MAX_DIGITS + 1];
+			selectPrefix.getChars(0, selectPrefixLength, selectBuffer, 0);
+		} else {
+			this.threads = 1;
+			chooser = null;
+			random = null;
+			selectBuffer = null;
+			selectPrefixLength = 0;
+		}
+	}
+
+	/**
+	 * @return the number of previously inserted documents per thread (option 'keySpace', by default the number of
+	 *         requests times the batch size)
+	 */
+	public static long keysPerThread(final CliOptions options) {
+		return options.getKeySpace() > 0 ? options.getKeySpace()
+				: (long) options.getRequests() * options.getBatchSize();
+	}
+
+	/**
+	 * @return the next keys of this thread. The returned list is reused by the next call.
+	 */
+	public List<String> generateKeys(final int quantity) {
+		keys.clear();
+		for (int i = 0; i < quantity; i++) {
+			keys.add(new String(buffer, 0, prefixLength + digits));
+			increment();
+		}
+		return keys;
+	}
+
+	/**
+	 * @return keys of previously inserted documents, chosen according to option 'keyDistribution'. The returned list
+	 *         is reused by the next call.
+	 */
+	public List<String> selectKeys(final int quantity) {
+		if (chooser == null) {
+			return generateKeys(quantity);
+		}
+		keys.clear();
+		for (int i = 0; i < quantity; i++) {
+			final long item = chooser.next(random);
+			int length = putDigits(selectBuffer, selectPrefixLength, item % threads);
+			selectBuffer[length++] = '-';
+			length = putDigits(selectBuffer, length, item / threads);
+			keys.add(new String(selectBuffer, 0, length));
+		}
+		return keys;
+	}
+
+	/**
+	 * Writes the decimal digits of the given non-negative value at the given position.
+	 *
+	 * @return the position after the last digit
+	 */
+	private static int putDigits(final char[] buffer, final int position, final long value) {
+		int length = 1;
+		for (long v = value; v >= 10; v /= 10) {
+			length++;
+		}
+		long v = value;
+		for (int i = position + length - 1; i >= position; i--) {
+			buffer[i] = (char) ('0' + v % 10);
+			v /= 10;
+		}
+		return position + length;
+	}
+
+	private void increment() {
+		for (int i = prefixLength + digits - 1; i >= prefixLength; i--) {
+			if (buffer[i] != '9') {
+				buffer[i]++;
+				return;
+			}
+			buffer[i] = '0';
+		}
+		buffer[prefixLength] = '1';
+		buffer[prefixLength + digits] = '0';
+		digits++;
+	}
+
+}
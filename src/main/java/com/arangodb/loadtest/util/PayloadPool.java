@@ -0,0 +1,142 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.arangodb.entity.DocumentField;
+import com.arangodb.velocypack.VPack;
+import com.arangodb.velocypack.VPackSlice;
+
+/**
+ * Holds the documents of a {@link DocumentCreator} serialized to VelocyPack, so that they don't have to be serialized
+ * again for every request. The serialized documents are templates in which only the bytes of the document key are
+ * replaced. The driver copies a {@link VPackSlice} into the request body as it is.
+ * <p>
+ * Since the size of a serialized document depends on the length of its key, there is one set of templates for every
+ * key length that occurs.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class PayloadPool {
+
+	private static class Template {
+		private final byte[] bytes;
+		private final int keyOffset;
+		private final VPackSlice slice;
+
+		public Template(final byte[] bytes, final int keyOffset) {
+			super();
+			this.bytes = bytes;
+			this.keyOffset = keyOffset;
+			slice = new VPackSlice(bytes);
+		}
+	}
+
+	private static final String KEY = DocumentField.Type.KEY.getSerializeName();
+
+	private final VPack vpack;
+	private final List<Map<String, Object>> contents;
+	private final Map<Integer, Template[]> templates;
+	private final List<VPackSlice> payloads;
+
+	public PayloadPool(final List<Map<String, Object>> contents) {
+		super();
+		this.contents = contents;
+		vpack = new VPack.Builder().build();
+		templates = new HashMap<>();
+		payloads = new ArrayList<>(contents.size());
+	}
+
+	/**
+	 * Returns the serialized documents with the given keys. The returned list and its slices are reused by the next
+	 * call.
+	 */
+	public List<VPackSlice> create(final Collection<String> keys) {
+		payloads.clear();
+		final Iterator<Map<String, Object>> iterator = contents.iterator();
+		int i = 0;
+		for (final String key : keys) {
+			final byte[] bytes = toBytes(key);
+			final Template template = template(i++, iterator.next(), bytes.length);
+			System.arraycopy(bytes, 0, template.bytes, template.keyOffset, bytes.length);
+			payloads.add(template.slice);
+		}
+		return payloads;
+	}
+
+	/**
+	 * Returns copies of the serialized documents with the given keys. Used for asynchronous operations, where the
+	 * driver may still read a payload after the next operation already started.
+	 */
+	public List<VPackSlice> createDetached(final Collection<String> keys) {
+		final List<VPackSlice> payloads = new ArrayList<>(keys.size());
+		final Iterator<Map<String, Object>> iterator = contents.iterator();
+		int i = 0;
+		for (final String key : keys) {
+			final byte[] bytes = toBytes(key);
+			final Template template = template(i++, iterator.next(), bytes.length);
+			final byte[] payload = Arrays.copyOf(template.bytes, template.bytes.length);
+			System.arraycopy(bytes, 0, payload, template.keyOffset, bytes.length);
+			payloads.add(new VPackSlice(payload));
+		}
+		return payloads;
+	}
+
+	private static byte[] toBytes(final String key) {
+		return key.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private Template template(final int index, final Map<String, Object> content, final int keyLength) {
+		Template[] forLength = templates.get(keyLength);
+		if (forLength == null) {
+			forLength = new Template[contents.size()];
+			templates.put(keyLength, forLength);
+		}
+		if (forLength[index] == null) {
+			forLength[index] = createTemplate(content, keyLength);
+		}
+		return forLength[index];
+	}
+
+	private Template createTemplate(final Map<String, Object> content, final int keyLength) {
+		final char[] placeholder = new char[keyLength];
+		Arrays.fill(placeholder, '0');
+		final Map<String, Object> document = new LinkedHashMap<>();
+		document.put(KEY, new String(placeholder));
+		document.putAll(content);
+		final VPackSlice slice = vpack.serialize(document);
+		final VPackSlice key = slice.get(KEY);
+		final int start = slice.getStart();
+		final byte[] bytes = Arrays.copyOfRange(slice.getBuffer(), start, start + slice.getByteSize());
+		return new Template(bytes, key.getStart() + key.getByteSize() - keyLength - start);
+	}
+
+}
@@ -0,0 +1,344 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoCollection;
+import com.arangodb.ArangoDB;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.entity.BaseDocument;
+import com.arangodb.entity.DocumentImportEntity;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.testcase.TestCase;
+import com.arangodb.model.DocumentImportOptions;
+import com.arangodb.model.DocumentImportOptions.OnDuplicate;
+
+/**
+ * Populates the collections of the reading and modifying test cases with bulk imports of several threads in parallel
+ * (option 'preload'), so that they don't depend on a previous insert test case with the same number of threads.
+ * <p>
+ * The documents get the keys the given number of threads would insert (see {@link KeyGen}), each thread the same
+ * number. The number of documents per thread is recorded in collection {@value #COLLECTION}, so that later runs
+ * without option 'preload' can choose from all of them (option 'keySpace').
+ * <p>
+ * The edge collection gets option 'graphDegree' edges per vertex, connected to the vertices by a
+ * {@link GraphGenerator}. The recorded number of documents is the number of vertices, which the edge test cases need
+ * to connect the edges the same way.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class PreloadUtils {
+
+	public static final String COLLECTION = "loadtest_preload";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PreloadUtils.class);
+	private static final String FIELD_THREADS = "threads";
+	private static final String FIELD_KEYS_PER_THREAD = "keysPerThread";
+	private static final String FIELD_RUNS = "runs";
+	private static final String FIELD_COLLECTION = "collection";
+
+	private PreloadUtils() {
+		super();
+	}
+
+	/**
+	 * @return the collections the given test cases read or modify existing documents in, for the modifying edge test
+	 *         cases including the vertex collection, since the graph API rejects edges to missing vertices
+	 */
+	public static Collection<String> collections(final CliOptions options, final Collection<TestCase> tests) {
+		final Set<String> collections = new LinkedHashSet<>();
+		for (final TestCase test : tests) {
+			switch (test) {
+			case DOCUMENT_GET:
+			case DOCUMENT_UPDATE:
+			case DOCUMENT_REPLACE:
+			case AQL_GET:
+			case AQL_REPLACE:
+			case AQL_CURSOR:
+			case SEARCH_TOKENS:
+			case SEARCH_PHRASE:
+			case INDEX_GET:
+			case INDEX_RANGE:
+			case INDEX_IN:
+				collections.add(options.getCollection());
+				break;
+			case VERTEX_GET:
+			case VERTEX_UPDATE:
+			case VERTEX_REPLACE:
+				collections.add(options.getVertexCollection());
+				break;
+			case EDGE_GET:
+				collections.add(options.getEdgeCollection());
+				break;
+			case EDGE_INSERT:
+				collections.add(options.getVertexCollection());
+				break;
+			case EDGE_UPDATE:
+			case EDGE_REPLACE:
+				collections.add(options.getVertexCollection());
+				collections.add(options.getEdgeCollection());
+				break;
+			case TRAVERSAL_OUTBOUND:
+			case TRAVERSAL_ANY:
+			case SHORTEST_PATH:
+			case K_SHORTEST_PATHS:
+				collections.add(options.getVertexCollection());
+				collections.add(options.getEdgeCollection());
+				break;
+			default:
+				break;
+			}
+		}
+		return collections;
+	}
+
+	/**
+	 * Imports the documents of the given run into the given collections. Existing documents with the same keys are
+	 * replaced. With option 'dataset' a document is the one of the dataset the thread of its key would insert.
+	 *
+	 * @param threads
+	 *            the number of threads whose keys are created
+	 * @return the number of documents per thread
+	 */
+	public static long preload(
+		final ArangoDB.Builder builder,
+		final CliOptions options,
+		final Collection<String> collections,
+		final int threads,
+		final int run,
+		final PrintStream out) throws InterruptedException {
+		return preload(builder, options, collections, threads, (options.getPreload() + threads - 1) / threads, run,
+			out);
+	}
+
+	/**
+	 * Imports the vertices of the given run the edges of the edge test cases are connected to (see
+	 * {@link GraphGenerator#keysPerThread(CliOptions)}), so that the edge test cases don't depend on a previous vertex
+	 * test case. Used without option 'preload'. Vertices which were already imported are not imported again.
+	 *
+	 * @param threads
+	 *            the number of threads whose keys are created
+	 */
+	public static void preloadVertices(
+		final ArangoDB.Builder builder,
+		final CliOptions options,
+		final int threads,
+		final int run,
+		final PrintStream out) throws InterruptedException {
+		final Collection<String> collections = Collections.singleton(options.getVertexCollection());
+		final long keysPerThread = GraphGenerator.keysPerThread(options);
+		final Long preloaded = keysPerThread(builder, options, collections, threads);
+		if (preloaded == null || preloaded < keysPerThread) {
+			preload(builder, options, collections, threads, keysPerThread, run, out);
+		}
+	}
+
+	private static long preload(
+		final ArangoDB.Builder builder,
+		final CliOptions options,
+		final Collection<String> collections,
+		final int threads,
+		final long keysPerThread,
+		final int run,
+		final PrintStream out) throws InterruptedException {
+		final int batchSize = options.getPreloadBatchSize();
+		final List<String> names = new ArrayList<>(collections);
+		// the batches of the collections one after the other, every collection by thread
+		final long[] collectionKeys = new long[names.size()];
+		final long[] batchesPerThread = new long[names.size()];
+		final long[] firstBatch = new long[names.size() + 1];
+		for (int i = 0; i < names.size(); i++) {
+			collectionKeys[i] = names.get(i).equals(options.getEdgeCollection())
+					? keysPerThread * options.getGraphDegree()
+					: keysPerThread;
+			batchesPerThread[i] = (collectionKeys[i] + batchSize - 1) / batchSize;
+			firstBatch[i + 1] = firstBatch[i] + batchesPerThread[i] * threads;
+		}
+		final long batches = firstBatch[names.size()];
+		final AtomicLong nextBatch = new AtomicLong();
+		final AtomicLong created = new AtomicLong();
+		final AtomicLong errors = new AtomicLong();
+		final long startTime = System.nanoTime();
+		final List<Thread> importers = new ArrayList<>();
+		final Dataset dataset = options.getDataset() != null ? Dataset.open(options.getDataset()) : null;
+		for (int i = 0; i < options.getPreloadThreads(); i++) {
+			final int importerNum = i;
+			final Thread importer = new Thread(() -> {
+				final ArangoDB arango = builder.build();
+				final DocumentCreator documentCreator = new DocumentCreator(options, importerNum, threads, batchSize,
+						new GraphGenerator(options, threads, keysPerThread));
+				final DocumentImportOptions importOptions = new DocumentImportOptions().onDuplicate(OnDuplicate.replace);
+				try {
+					for (long batch; (batch = nextBatch.getAndIncrement()) < batches;) {
+						int c = 0;
+						while (batch >= firstBatch[c + 1]) {
+							c++;
+						}
+						final String name = names.get(c);
+						final int num = (int) ((batch - firstBatch[c]) / batchesPerThread[c]);
+						final long firstIndex = (batch - firstBatch[c]) % batchesPerThread[c] * batchSize;
+						final List<String> keys = new KeyGen(options, num, run, firstIndex)
+								.generateKeys((int) Math.min(batchSize, collectionKeys[c] - firstIndex));
+						final ArangoCollection collection = arango.db(options.getDatabase()).collection(name);
+						try {
+							final DocumentImportEntity result = collection.importDocuments(
+								name.equals(options.getEdgeCollection()) ? documentCreator.createEdge(keys)
+										: dataset != null ? dataset.payloads(num, threads, firstIndex).create(keys)
+												: documentCreator.create(keys),
+								importOptions);
+							created.addAndGet(result.getCreated() + result.getUpdated());
+							errors.addAndGet(result.getErrors());
+						} catch (final ArangoDBException e) {
+							LOGGER.error(String.format("Failed to import %s documents into collection %s", keys.size(),
+								name), e);
+							errors.addAndGet(keys.size());
+						}
+					}
+				} finally {
+					arango.shutdown();
+				}
+			}, "preload-" + i);
+			importer.start();
+			importers.add(importer);
+		}
+		for (final Thread importer : importers) {
+			importer.join();
+		}
+		final double seconds = (System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+		if (options.getVerbose()) {
+			out.println(String.format(
+				"## PRELOAD %s documents into %s in %.1f seconds (%.0f documents/s), %s threads * %s keys, %s errors",
+				created.get(), String.join(",", names), seconds, created.get() / Math.max(seconds, 0.001), threads,
+				keysPerThread, errors.get()));
+		}
+		record(builder, options, names, threads, keysPerThread, run);
+		return keysPerThread;
+	}
+
+	/**
+	 * @param threads
+	 *            the number of threads whose keys are used
+	 * @return the number of preloaded documents per thread in the given collections, or {@code null} if they were not
+	 *         preloaded
+	 */
+	public static Long keysPerThread(
+		final ArangoDB.Builder builder,
+		final CliOptions options,
+		final Collection<String> collections,
+		final int threads) {
+		if (collections.isEmpty()) {
+			return null;
+		}
+		final ArangoDB arango = builder.build();
+		try {
+			long keysPerThread = Long.MAX_VALUE;
+			for (final String name : collections) {
+				final Map<String, Object> properties = metaData(arango, options, name);
+				if (properties == null || !(properties.get(FIELD_KEYS_PER_THREAD) instanceof Number)) {
+					return null;
+				}
+				final int preloadThreads = ((Number) properties.get(FIELD_THREADS)).intValue();
+				if (preloadThreads < threads) {
+					LOGGER.warn(String.format(
+						"Collection %s was preloaded with the keys of %s threads, the keys of the other threads are missing",
+						name, preloadThreads));
+				}
+				final int runs = ((Number) properties.get(FIELD_RUNS)).intValue();
+				if (runs < options.getRuns()) {
+					LOGGER.warn(String.format(
+						"Collection %s was preloaded with the keys of %s runs, the keys of the other runs are missing",
+						name, runs));
+				}
+				keysPerThread = Math.min(keysPerThread,
+					((Number) properties.get(FIELD_KEYS_PER_THREAD)).longValue());
+			}
+			return keysPerThread;
+		} catch (final ArangoDBException e) {
+			return null;
+		} finally {
+			arango.shutdown();
+		}
+	}
+
+	private static Map<String, Object> metaData(final ArangoDB arango, final CliOptions options, final String name) {
+		final ArangoCollection collection = arango.db(options.getDatabase()).collection(COLLECTION);
+		final BaseDocument document = collection.getDocument(key(options, name), BaseDocument.class);
+		return document != null ? document.getProperties() : null;
+	}
+
+	/**
+	 * Records the preloaded documents of the given run in collection {@value #COLLECTION}.
+	 */
+	private static void record(
+		final ArangoDB.Builder builder,
+		final CliOptions options,
+		final Collection<String> collections,
+		final int threads,
+		final long keysPerThread,
+		final int run) {
+		final ArangoDB arango = builder.build();
+		try {
+			final ArangoDatabase db = arango.db(options.getDatabase());
+			final ArangoCollection collection = db.collection(COLLECTION);
+			if (!collection.exists()) {
+				collection.create();
+			}
+			final List<BaseDocument> documents = new ArrayList<>();
+			for (final String name : collections) {
+				final BaseDocument document = new BaseDocument(key(options, name));
+				document.addAttribute(FIELD_COLLECTION, name);
+				document.addAttribute(FIELD_THREADS, threads);
+				document.addAttribute(FIELD_KEYS_PER_THREAD, keysPerThread);
+				document.addAttribute(FIELD_RUNS, run + 1);
+				documents.add(document);
+			}
+			collection.importDocuments(documents, new DocumentImportOptions().onDuplicate(OnDuplicate.replace));
+		} catch (final ArangoDBException e) {
+			LOGGER.error(String.format("Failed to record the preloaded documents in collection %s", COLLECTION), e);
+		} finally {
+			arango.shutdown();
+		}
+	}
+
+	/**
+	 * @return the key of the meta data of the given collection, which includes option 'keyPrefix'
+	 */
+	private static String key(final CliOptions options, final String collection) {
+		final String keyPrefix = options.getKeyPrefix();
+		return collection + (keyPrefix != null ? "-" + keyPrefix : "");
+	}
+
+}
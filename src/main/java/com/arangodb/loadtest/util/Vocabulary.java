@@ -0,0 +1,110 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The words of the text in the large String fields of the documents with option 'docView' (option 'docVocabulary'),
+ * and of the search terms of the search test cases. The words are generated from a fixed seed, so every worker, every
+ * run and every agent uses the same vocabulary. Like in natural language, the words are used with a Zipfian
+ * distribution: a few words occur in almost every document, most words only in a few.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class Vocabulary {
+
+	private static final long SEED = 8529;
+	private static final int MIN_WORD_LENGTH = 3;
+	private static final int MAX_WORD_LENGTH = 10;
+	private static final double THETA = 0.99;
+	private static final Map<Integer, Vocabulary> CACHE = new ConcurrentHashMap<>();
+
+	private final String[] words;
+	private final KeyChooser chooser;
+
+	private Vocabulary(final int size) {
+		super();
+		if (size < 2) {
+			throw new IllegalArgumentException("Option 'docVocabulary' has to be at least 2");
+		}
+		final SplittableRandom random = new SplittableRandom(SEED);
+		final Set<String> generated = new LinkedHashSet<>();
+		while (generated.size() < size) {
+			final char[] word = new char[MIN_WORD_LENGTH + random.nextInt(MAX_WORD_LENGTH - MIN_WORD_LENGTH + 1)];
+			for (int i = 0; i < word.length; i++) {
+				word[i] = (char) ('a' + random.nextInt(26));
+			}
+			generated.add(new String(word));
+		}
+		words = generated.toArray(new String[size]);
+		chooser = KeyChooser.zipfian(size, THETA);
+	}
+
+	/**
+	 * @return the vocabulary with the given number of words. Every worker uses the vocabulary, so it is only generated
+	 *         once.
+	 */
+	public static Vocabulary get(final int size) {
+		return CACHE.computeIfAbsent(size, Vocabulary::new);
+	}
+
+	/**
+	 * @return a word chosen with the Zipfian distribution of the vocabulary
+	 */
+	public String word(final SplittableRandom random) {
+		return words[(int) chooser.next(random)];
+	}
+
+	/**
+	 * @return the given number of words, separated by spaces
+	 */
+	public String words(final SplittableRandom random, final int count) {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				text.append(' ');
+			}
+			text.append(word(random));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * @return words separated by spaces, at least the given number of characters long
+	 */
+	public String text(final SplittableRandom random, final int length) {
+		final StringBuilder text = new StringBuilder(length + MAX_WORD_LENGTH);
+		while (text.length() < length) {
+			if (text.length() > 0) {
+				text.append(' ');
+			}
+			text.append(word(random));
+		}
+		return text.toString();
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.worker;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import com.arangodb.ArangoDBAsync;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.testcase.AsyncArangoTestCase;
+import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.KeyGen;
+
+/**
+ * Worker which keeps up to 'inflight' operations per connection in flight. When the window is full, issuing the next
+ * operation blocks until one of the pending operations completes.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class AsyncWorker extends Worker {
+
+	private final AsyncArangoTestCase test;
+	private final int window;
+	private final Semaphore inflight;
+
+	public AsyncWorker(final ArangoDBAsync.Builder builder, final CliOptions options, final int num,
+		final Map<String, LatencyRecorder> recorders, final AsyncArangoTestCase.InstanceCreator instanceCreator,
+		final DocumentCreator documentCreator, final int run, final int keyThreads) {
+		super(options, num);
+		final LatencyRecorder recorder = recorder(options, num, recorders);
+		test = instanceCreator.create(builder, options, num, recorder, new KeyGen(options, num, run, keyThreads, 0, null),
+			documentCreator);
+		window = options.getInflight() * options.getConnections();
+		inflight = new Semaphore(window);
+	}
+
+	@Override
+	protected void execute() throws InterruptedException {
+		inflight.acquire();
+		test.run().whenComplete((r, e) -> inflight.release());
+	}
+
+	@Override
+	protected void execute(final long intendedStartTime) throws InterruptedException {
+		inflight.acquire();
+		test.run(intendedStartTime).whenComplete((r, e) -> inflight.release());
+	}
+
+	@Override
+	protected void finish() throws InterruptedException {
+		inflight.acquire(window);
+		inflight.release(window);
+	}
+
+	@Override
+	public void close() throws IOException {
+		test.close();
+	}
+
+}
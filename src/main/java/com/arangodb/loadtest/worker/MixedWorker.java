@@ -0,0 +1,139 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.worker;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.testcase.ArangoTestCase;
+import com.arangodb.loadtest.testcase.TestCase;
+import com.arangodb.loadtest.util.DocumentCreator;
+import com.arangodb.loadtest.util.KeyGen;
+
+/**
+ * Worker which picks every operation by weight out of several test cases (option 'mix', or the depths of option
+ * 'traversalDepth'). Every test case has its own connections and its own latency recorder, so that the results are
+ * reported per operation type.
+ * <p>
+ * Inserting test cases generate their keys behind the key space of the previously inserted documents (option
+ * 'keySpace'), so that they neither collide with these nor change the key space of the reading test cases. The keys
+ * of every inserting test case contain its position in the mix, so that several of them (e.g. 'document_insert' and
+ * 'document_import') do not insert the same keys.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class MixedWorker extends Worker {
+
+	public static class Operation {
+
+		private final String name;
+		private final TestCase test;
+		private final int weight;
+		private final boolean insert;
+		private final ArangoTestCase.InstanceCreator instanceCreator;
+
+		public Operation(final TestCase test, final int weight, final boolean insert,
+			final ArangoTestCase.InstanceCreator instanceCreator) {
+			this(test.toString().toLowerCase(), test, weight, insert, instanceCreator);
+		}
+
+		/**
+		 * @param name
+		 *            the name the operation is reported with
+		 */
+		public Operation(final String name, final TestCase test, final int weight, final boolean insert,
+			final ArangoTestCase.InstanceCreator instanceCreator) {
+			super();
+			this.name = name;
+			this.test = test;
+			this.weight = weight;
+			this.insert = insert;
+			this.instanceCreator = instanceCreator;
+		}
+
+		public TestCase getTest() {
+			return test;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+	}
+
+	private final ArangoTestCase[] tests;
+	private final int[] cumulativeWeights;
+	private final SplittableRandom random;
+
+	public MixedWorker(final ArangoDB.Builder builder, final CliOptions options, final int num,
+		final Map<String, LatencyRecorder> recorders, final List<Operation> operations, final int run,
+		final int keyThreads) {
+		super(options, num);
+		final DocumentCreator documentCreator = new DocumentCreator(options, num, keyThreads);
+		final long keysPerThread = KeyGen.keysPerThread(options);
+		tests = new ArangoTestCase[operations.size()];
+		cumulativeWeights = new int[operations.size()];
+		int totalWeight = 0;
+		for (int i = 0; i < tests.length; i++) {
+			final Operation operation = operations.get(i);
+			final LatencyRecorder recorder = recorder(options, num, recorders, operation.getName());
+			final KeyGen keyGen = new KeyGen(options, num, run, keyThreads, operation.insert ? keysPerThread : 0,
+					operation.insert ? String.valueOf(i) : null);
+			tests[i] = operation.instanceCreator.create(builder, options, num, recorder, keyGen, documentCreator);
+			totalWeight += operation.weight;
+			cumulativeWeights[i] = totalWeight;
+		}
+		random = new SplittableRandom();
+	}
+
+	private ArangoTestCase next() {
+		final int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		int i = 0;
+		while (value >= cumulativeWeights[i]) {
+			i++;
+		}
+		return tests[i];
+	}
+
+	@Override
+	protected void execute() {
+		next().run();
+	}
+
+	@Override
+	protected void execute(final long intendedStartTime) {
+		next().run(intendedStartTime);
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (final ArangoTestCase test : tests) {
+			test.close();
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.worker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+
+/**
+ * Measures the client-side scheduling delay: a thread of the same kind as the workers repeatedly parks for a fixed
+ * time and records how much later than expected it was resumed.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class SchedulingProbe implements Runnable {
+
+	private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final LatencyRecorder recorder;
+	private final Thread thread;
+	private volatile boolean running;
+
+	public SchedulingProbe(final boolean virtual) {
+		super();
+		recorder = new LatencyRecorder();
+		thread = WorkerThreads.newThread(this, virtual);
+		thread.setDaemon(true);
+	}
+
+	public LatencyRecorder getRecorder() {
+		return recorder;
+	}
+
+	public void start() {
+		running = true;
+		thread.start();
+	}
+
+	public void stop() throws InterruptedException {
+		running = false;
+		thread.join();
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			final long expected = System.nanoTime() + INTERVAL;
+			LockSupport.parkNanos(INTERVAL);
+			recorder.record(Math.max(0, System.nanoTime() - expected));
+		}
+	}
+
+}
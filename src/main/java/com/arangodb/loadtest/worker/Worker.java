@@ -0,0 +1,248 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.worker;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.cli.RateScope;
+import com.arangodb.loadtest.metrics.LatencyRecorder;
+import com.arangodb.loadtest.metrics.LoadSteps;
+import com.arangodb.loadtest.metrics.Warmup;
+
+/**
+ * Drives the operations of a single client, either in a closed loop (back to back) or in an open loop (fixed
+ * schedule, option 'rate'). The client runs on a platform thread or, with option 'virtualThreads', on a virtual
+ * thread. The options 'requests' and 'duration' apply to the operations after the warmup (option 'warmup'). With
+ * options 'ramp' and 'sloLatency' the worker runs until the last load step is completed.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public abstract class Worker implements Runnable, Closeable {
+
+	public static interface InstanceCreator {
+		Worker create(int num, Map<String, LatencyRecorder> recorders);
+	}
+
+	public static final String OPERATION_SEPARATOR = "/";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Worker.class);
+	private static final int VIRTUAL_RECORDER_STRIPES = Runtime.getRuntime().availableProcessors() * 4;
+	protected final CliOptions options;
+	protected final int num;
+	private final Thread thread;
+	private Warmup warmup;
+	private LoadSteps steps;
+
+	public Worker(final CliOptions options, final int num) {
+		super();
+		this.options = options;
+		this.num = num;
+		thread = WorkerThreads.newThread(this, options.getVirtualThreads());
+	}
+
+	/**
+	 * Returns the recorder for the worker with the given number. With virtual threads the workers share a limited
+	 * number of recorders, since there can be tens of thousands of them.
+	 */
+	protected static LatencyRecorder recorder(
+		final CliOptions options,
+		final int num,
+		final Map<String, LatencyRecorder> recorders) {
+		final String name = options.getVirtualThreads() ? "stripe" + (num % VIRTUAL_RECORDER_STRIPES)
+				: "thread" + num;
+		return recorders.computeIfAbsent(name, n -> createRecorder(options, recorders, null));
+	}
+
+	/**
+	 * Returns the recorder for the given operation of the worker with the given number (option 'mix'). The name of the
+	 * recorder is prefixed with the name of the operation and {@link #OPERATION_SEPARATOR}.
+	 */
+	protected static LatencyRecorder recorder(
+		final CliOptions options,
+		final int num,
+		final Map<String, LatencyRecorder> recorders,
+		final String operation) {
+		final String name = operation + OPERATION_SEPARATOR
+				+ (options.getVirtualThreads() ? "stripe" + (num % VIRTUAL_RECORDER_STRIPES) : "thread" + num);
+		return recorders.computeIfAbsent(name, n -> createRecorder(options, recorders, operation));
+	}
+
+	/**
+	 * The recorders of the hosts (option 'hostLatencies') and of the phases of the operations are shared by all
+	 * workers, since there are far more workers than hosts. They are added to the given recorders with the name
+	 * {@link LatencyRecorder#HOST_PREFIX} + host, respectively {@link LatencyRecorder#PHASE_PREFIX} + phase.
+	 */
+	private static LatencyRecorder createRecorder(
+		final CliOptions options,
+		final Map<String, LatencyRecorder> recorders,
+		final String operation) {
+		return new LatencyRecorder(operation, name -> recorders.computeIfAbsent(name, n -> new LatencyRecorder()),
+				options.getHostLatencies());
+	}
+
+	/**
+	 * @param warmup
+	 *            the warmup of the test case, shared by all workers
+	 * @param steps
+	 *            the load steps of the test case, shared by all workers, {@code null} without options 'ramp' and
+	 *            'sloLatency'
+	 */
+	public void start(final Warmup warmup, final LoadSteps steps) {
+		this.warmup = warmup;
+		this.steps = steps;
+		thread.start();
+	}
+
+	public boolean isAlive() {
+		return thread.isAlive();
+	}
+
+	public void join() throws InterruptedException {
+		thread.join();
+	}
+
+	protected abstract void execute() throws Exception;
+
+	/**
+	 * @param intendedStartTime
+	 *            the time (as of {@link System#nanoTime()}) the operation was scheduled to start
+	 */
+	protected abstract void execute(long intendedStartTime) throws Exception;
+
+	/**
+	 * Called after the last operation was issued.
+	 */
+	protected void finish() throws Exception {
+	}
+
+	@Override
+	public void run() {
+		try {
+			if (options.getRate() > 0 && steps != null) {
+				runOpenLoopSteps();
+			} else if (options.getRate() > 0) {
+				runOpenLoop();
+			} else if (steps != null) {
+				while (!steps.isFinished()) {
+					execute();
+				}
+			} else if (options.getDuration() > 0) {
+				final long duration = TimeUnit.SECONDS.toNanos(options.getDuration());
+				final long startTime = System.nanoTime();
+				while (!warmup.isDone() || System.nanoTime() - measurementStart(startTime) < duration) {
+					execute();
+				}
+			} else {
+				for (int i = 0; i < options.getRequests();) {
+					execute();
+					if (warmup.isDone()) {
+						i++;
+					}
+				}
+			}
+			finish();
+		} catch (final Exception e) {
+			LOGGER.error("Failed to execute request", e);
+		}
+	}
+
+	/**
+	 * Issues the operations on a fixed schedule, independent of how long previous operations took. With a global rate
+	 * the schedules of the threads are staggered so that the operations are spread evenly over time.
+	 */
+	private void runOpenLoop() throws Exception {
+		final double interval = interval(options.getRate());
+		final double offset = options.getRateScope() == RateScope.THREAD ? 0 : interval * num / options.getThreads();
+		final long duration = TimeUnit.SECONDS.toNanos(options.getDuration());
+		final long startTime = System.nanoTime();
+		long requests = 0;
+		for (long i = 0;; i++) {
+			final long intendedStartTime = startTime + (long) (offset + i * interval);
+			if (warmup.isDone() && (options.getDuration() > 0
+					? intendedStartTime - (measurementStart(startTime) + duration) >= 0
+					: requests++ >= options.getRequests())) {
+				break;
+			}
+			for (long remaining; (remaining = intendedStartTime - System.nanoTime()) > 0;) {
+				LockSupport.parkNanos(remaining);
+			}
+			execute(intendedStartTime);
+		}
+	}
+
+	/**
+	 * Issues the operations on a fixed schedule like {@link #runOpenLoop()}, with the rate of the current load step.
+	 * The schedule of every step is anchored to the start time of the step: an operation scheduled after the start of
+	 * the next step is not issued, instead the schedule of the next step begins. Operations a worker fell behind on are
+	 * still issued (late) when the next step started, so that they show up in the response times.
+	 */
+	private void runOpenLoopSteps() throws Exception {
+		LoadSteps.Current step = steps.getCurrent();
+		long i = 0;
+		while (!steps.isFinished()) {
+			final long intendedStartTime = step.getStartTime()
+					+ (long) (stepOffset(step.getLoad()) + i * interval(step.getLoad()));
+			final LoadSteps.Current next = step.getNext();
+			if (next != null && intendedStartTime - next.getStartTime() >= 0) {
+				step = next;
+				i = 0;
+				continue;
+			}
+			if (next == null && !steps.parkUntil(intendedStartTime, step)) {
+				continue;
+			}
+			execute(intendedStartTime);
+			i++;
+		}
+	}
+
+	/**
+	 * @return the offset in nanoseconds of the first operation of this worker in a step with the given rate
+	 */
+	private double stepOffset(final int rate) {
+		return options.getRateScope() == RateScope.THREAD ? 0 : interval(rate) * num / options.getThreads();
+	}
+
+	/**
+	 * @return the time in nanoseconds between two operations of this worker at the given rate
+	 */
+	private double interval(final int rate) {
+		final double threadRate = options.getRateScope() == RateScope.THREAD ? rate
+				: (double) rate / options.getThreads();
+		return 1000 * 1000 * 1000 / threadRate;
+	}
+
+	/**
+	 * @return the end of the warmup or, without warmup, the given start time of the worker
+	 */
+	private long measurementStart(final long startTime) {
+		return warmup.isEnabled() ? warmup.getEndTime() : startTime;
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.worker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Creates the threads the workers run on. Virtual threads are looked up reflectively, so that the project still
+ * builds and runs on Java 8, but can use virtual threads when running on Java 21 or newer.
+ *
+ * @author Mark Vollmary
+ *
+ */
+public class WorkerThreads {
+
+	private static final MethodHandle OF_VIRTUAL;
+	private static final MethodHandle UNSTARTED;
+
+	static {
+		MethodHandle ofVirtual = null;
+		MethodHandle unstarted = null;
+		try {
+			final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+				MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+			unstarted = lookup.findVirtual(builderClass, "unstarted",
+				MethodType.methodType(Thread.class, Runnable.class));
+		} catch (final ReflectiveOperationException e) {
+			ofVirtual = null;
+			unstarted = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		UNSTARTED = unstarted;
+	}
+
+	private WorkerThreads() {
+		super();
+	}
+
+	public static boolean isVirtualSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	public static Thread newThread(final Runnable runnable, final boolean virtual) {
+		if (!virtual) {
+			return new Thread(runnable);
+		}
+		if (!isVirtualSupported()) {
+			throw new IllegalStateException("Virtual threads require Java 21 or newer");
+		}
+		try {
+			return (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(), runnable);
+		} catch (final Throwable e) {
+			throw new IllegalStateException("Failed to create virtual thread", e);
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.arangodb.internal.net.AccessType;
+import com.arangodb.internal.net.Connection;
+import com.arangodb.internal.net.Host;
+import com.arangodb.internal.net.HostDescription;
+import com.arangodb.internal.net.HostHandle;
+import com.arangodb.internal.net.HostHandler;
+
+/**
+ * @author Mark Vollmary
+ *
+ */
+public class HostTrackingTest {
+
+	private static final String[] HOSTS = { "a:8529", "b:8529" };
+
+	/**
+	 * Host handler which selects the hosts {@link #HOSTS} in turn.
+	 */
+	private static class AlternatingHostHandler implements HostHandler {
+
+		private int next;
+
+		@Override
+		public Host get(final HostHandle hostHandle, final AccessType accessType) {
+			final String[] host = HOSTS[next++ % HOSTS.length].split(":");
+			final HostDescription description = new HostDescription(host[0], Integer.parseInt(host[1]));
+			return new Host() {
+				@Override
+				public HostDescription getDescription() {
+					return description;
+				}
+
+				@Override
+				public Connection connection() {
+					return null;
+				}
+
+				@Override
+				public void closeOnError() {
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+
+		@Override
+		public void success() {
+		}
+
+		@Override
+		public void fail() {
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		@Override
+		public void confirm() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void closeCurrentOnError() {
+		}
+	}
+
+	/**
+	 * Issues operations to alternating hosts like the asynchronous driver: the host is selected on the issuing thread,
+	 * the operations are completed on another thread after all of them were issued.
+	 */
+	@Test
+	public void asyncOperationsKeepTheirHost() throws Exception {
+		final HostHandler handler = new HostTracking.TrackingHostHandler(new AlternatingHostHandler());
+		final ExecutorService completer = Executors.newSingleThreadExecutor();
+		try {
+			final List<CompletableFuture<Void>> issued = new ArrayList<>();
+			final List<CompletableFuture<String>> hosts = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				final CompletableFuture<Void> future = new CompletableFuture<>();
+				final HostTracking.Scope scope = HostTracking.open();
+				try {
+					handler.get(null, AccessType.WRITE);
+				} finally {
+					scope.close();
+				}
+				issued.add(future);
+				hosts.add(future.thenApply(r -> scope.getHost()));
+			}
+			issued.forEach(future -> completer.execute(() -> future.complete(null)));
+			for (int i = 0; i < hosts.size(); i++) {
+				assertEquals(HOSTS[i % HOSTS.length], hosts.get(i).get());
+			}
+		} finally {
+			completer.shutdown();
+		}
+	}
+
+	@Test
+	public void operationWithoutSelectedHostHasNoHost() {
+		final HostHandler handler = new HostTracking.TrackingHostHandler(new AlternatingHostHandler());
+		try (HostTracking.Scope scope = HostTracking.open()) {
+			handler.get(null, AccessType.WRITE);
+		}
+		try (HostTracking.Scope scope = HostTracking.open()) {
+			assertNull(scope.getHost());
+		}
+	}
+
+	@Test
+	public void failoverKeepsLastSelectedHost() {
+		final HostHandler handler = new HostTracking.TrackingHostHandler(new AlternatingHostHandler());
+		try (HostTracking.Scope scope = HostTracking.open()) {
+			handler.get(null, AccessType.WRITE);
+			handler.fail();
+			handler.get(null, AccessType.WRITE);
+			assertEquals(HOSTS[1], scope.getHost());
+		}
+	}
+
+}
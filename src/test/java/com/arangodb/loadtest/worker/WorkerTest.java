@@ -0,0 +1,216 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2017 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.loadtest.worker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.commons.cli.BasicParser;
+import org.apache.commons.cli.ParseException;
+import org.junit.Test;
+
+import com.arangodb.loadtest.cli.CliOptionUtils;
+import com.arangodb.loadtest.cli.CliOptions;
+import com.arangodb.loadtest.metrics.LatencyReport;
+import com.arangodb.loadtest.metrics.LoadSteps;
+import com.arangodb.loadtest.metrics.Warmup;
+
+/**
+ * @author Mark Vollmary
+ *
+ */
+public class WorkerTest {
+
+	private static final int THREADS = 4;
+
+	/**
+	 * Load steps which are advanced by the test instead of by the measured intervals.
+	 */
+	private static class ManualSteps extends LoadSteps {
+
+		ManualSteps(final CliOptions options) {
+			super(options, options.getRate());
+		}
+
+		void next(final int rate) {
+			startStep(rate);
+		}
+
+		void stop() {
+			finish();
+		}
+
+		@Override
+		protected Integer completeStep(final Step step) {
+			return null;
+		}
+
+		@Override
+		public void printSummary(final String type, final PrintStream out) {
+		}
+	}
+
+	/**
+	 * Records the intended start times of its operations. The worker with number 0 stalls once for the given time, as
+	 * soon as an operation is scheduled later than the given time after the start of the first step.
+	 */
+	private static class RecordingWorker extends Worker {
+
+		private final Queue<Long> intendedStartTimes;
+		private final LoadSteps steps;
+		private final long stallAfter;
+		private final long stall;
+		private boolean stalled;
+
+		RecordingWorker(final CliOptions options, final int num, final Queue<Long> intendedStartTimes,
+			final LoadSteps steps, final long stallAfter, final long stall) {
+			super(options, num);
+			this.intendedStartTimes = intendedStartTimes;
+			this.steps = steps;
+			this.stallAfter = stallAfter;
+			this.stall = stall;
+		}
+
+		@Override
+		protected void execute() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected void execute(final long intendedStartTime) throws InterruptedException {
+			intendedStartTimes.add(intendedStartTime);
+			if (num == 0 && stall > 0 && !stalled
+					&& intendedStartTime - steps.getCurrent().getStartTime() > stallAfter) {
+				stalled = true;
+				TimeUnit.NANOSECONDS.sleep(stall);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	private static CliOptions options(final String... args) throws ParseException {
+		final String[] all = Stream.concat(Stream.of("--test", "version", "--threads", String.valueOf(THREADS)),
+			Stream.of(args)).toArray(String[]::new);
+		return CliOptionUtils.readOptions(new BasicParser().parse(CliOptionUtils.createOptions(), all));
+	}
+
+	@Test
+	public void openLoopStepsIssueRateOfEveryStep() throws Exception {
+		assertOperationsPerStep(0, 0);
+	}
+
+	@Test
+	public void openLoopStepsCatchUpOnMissedOperations() throws Exception {
+		assertOperationsPerStep(TimeUnit.MILLISECONDS.toNanos(400), TimeUnit.MILLISECONDS.toNanos(300));
+	}
+
+	/**
+	 * Runs the steps 400, 100 and 400 operations/s and checks the operations of the first two steps.
+	 */
+	private void assertOperationsPerStep(final long stallAfter, final long stall) throws Exception {
+		final int[] rates = { 400, 100, 400 };
+		final CliOptions options = options("--rate", String.valueOf(rates[0]));
+		final ManualSteps steps = new ManualSteps(options);
+		final Queue<Long> intendedStartTimes = new ConcurrentLinkedQueue<>();
+		final Worker[] workers = startWorkers(options, steps, intendedStartTimes, stallAfter, stall);
+		final LoadSteps.Current first = steps.getCurrent();
+		TimeUnit.MILLISECONDS.sleep(500);
+		steps.next(rates[1]);
+		TimeUnit.MILLISECONDS.sleep(500);
+		steps.next(rates[2]);
+		TimeUnit.MILLISECONDS.sleep(300);
+		steps.stop();
+		for (final Worker worker : workers) {
+			worker.join();
+		}
+		assertOperationsPerStep(first, intendedStartTimes);
+	}
+
+	/**
+	 * Runs the rate ramp 400, 100, 400 (option 'ramp'), whose steps are advanced by the completed intervals of a
+	 * report, and checks the operations of the first two steps.
+	 */
+	@Test
+	public void rampIssuesRateOfEveryStep() throws Exception {
+		final CliOptions options = options("--rate", "400", "--ramp", "400,100,400", "--rampStep", "1");
+		final LoadSteps steps = LoadSteps.create(options);
+		final PrintStream out = new PrintStream(new ByteArrayOutputStream());
+		final LatencyReport report = new LatencyReport(options, "version", THREADS, Collections.emptyList(), false,
+				Warmup.NONE, out);
+		final Queue<Long> intendedStartTimes = new ConcurrentLinkedQueue<>();
+		final Worker[] workers = startWorkers(options, steps, intendedStartTimes, 0, 0);
+		final LoadSteps.Current first = steps.getCurrent();
+		while (!steps.isFinished()) {
+			TimeUnit.MILLISECONDS.sleep(500);
+			report.startInterval();
+			report.completeInterval();
+			steps.completeInterval(report, out);
+		}
+		for (final Worker worker : workers) {
+			worker.join();
+		}
+		assertOperationsPerStep(first, intendedStartTimes);
+	}
+
+	private static Worker[] startWorkers(
+		final CliOptions options,
+		final LoadSteps steps,
+		final Queue<Long> intendedStartTimes,
+		final long stallAfter,
+		final long stall) {
+		final Worker[] workers = new Worker[THREADS];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new RecordingWorker(options, i, intendedStartTimes, steps, stallAfter, stall);
+		}
+		steps.start();
+		for (final Worker worker : workers) {
+			worker.start(Warmup.NONE, steps);
+		}
+		return workers;
+	}
+
+	/**
+	 * Checks that the intended start times of the operations within every step but the last one match the rate of the
+	 * step: none of the operations of a step is dropped and none of a previous step leaks into it.
+	 */
+	private static void assertOperationsPerStep(final LoadSteps.Current first, final Queue<Long> intendedStartTimes) {
+		for (LoadSteps.Current step = first; step.getNext().getNext() != null; step = step.getNext()) {
+			final long start = step.getStartTime();
+			final long end = step.getNext().getStartTime();
+			final long operations = intendedStartTimes.stream()
+					.filter(time -> time - start >= 0 && time - end < 0).count();
+			final double expected = (double) step.getLoad() * (end - start) / TimeUnit.SECONDS.toNanos(1);
+			assertEquals("operations of step " + step.getNumber(), expected, operations, THREADS);
+		}
+	}
+
+}